@@ -0,0 +1,74 @@
+/*
+Copyright 2023 Arete
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package it.aretesoftware.gdx.jvdf.benchmarks;
+
+import it.aretesoftware.gdx.jvdf.VDFBinaryParser;
+import it.aretesoftware.gdx.jvdf.VDFBinaryWriter;
+import it.aretesoftware.gdx.jvdf.VDFNode;
+import it.aretesoftware.gdx.jvdf.VDFParser;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares parsing a generated document from its text form with {@link VDFParser} against parsing the same tree from
+ * its binary form with {@link VDFBinaryParser}.
+ * @author BucketOfBroccoli */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class VDFBinaryParserBenchmark {
+
+    @Param({ "1000", "50000" })
+    public int size;
+
+    private final VDFParser parser = new VDFParser();
+    private final VDFBinaryParser binaryParser = new VDFBinaryParser();
+    private String vdf;
+    private byte[] bytes;
+
+    @Setup
+    public void setup() {
+        vdf = VDFDocuments.generate(4, 0, size);
+        bytes = new VDFBinaryWriter().writeNode(parser.parse(vdf)).toByteArray();
+    }
+
+    @Benchmark
+    public VDFNode parseText() {
+        return parser.parse(vdf);
+    }
+
+    @Benchmark
+    public VDFNode parseBinary() {
+        return binaryParser.parse(bytes);
+    }
+
+}
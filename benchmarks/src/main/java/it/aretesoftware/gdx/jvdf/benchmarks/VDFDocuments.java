@@ -0,0 +1,90 @@
+/*
+Copyright 2023 Arete
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package it.aretesoftware.gdx.jvdf.benchmarks;
+
+/**
+ * Generates the synthetic VDF documents the benchmarks run over. A document has a single root node holding
+ * {@code size} blocks; every block holds {@code width} values of mixed types and, until {@code depth} is reached,
+ * one nested block shaped the same way.
+ * @author BucketOfBroccoli */
+final class VDFDocuments {
+
+    /** The value names used in every block, cycled through when a block is wider than this. */
+    static final String[] KEYS = { "name", "int", "float", "bool", "color", "vec3", "vec2", "text" };
+
+    private static final String[] VALUES = {
+            "item", "123456", "123.456", "true", "1.0 0.5 0.25 1.0", "1.0 0.0 0.0", "0.0 1.0", "Some text with spaces"
+    };
+
+    private VDFDocuments() {
+    }
+
+    /**
+     * Generates a document.
+     * @param width the amount of values in every block
+     * @param depth the amount of nested blocks below every top level block
+     * @param size the amount of top level blocks
+     * @return the document, formatted the way {@link it.aretesoftware.gdx.jvdf.VDFWriter} formats it */
+    static String generate(int width, int depth, int size) {
+        StringBuilder builder = new StringBuilder(size * (depth + 1) * (width * 40 + 32));
+        builder.append("\"root\"\n{\n");
+        for (int i = 0; i < size; i++) {
+            appendBlock(builder, "block_" + i, width, depth, 1);
+        }
+        builder.append("}\n");
+        return builder.toString();
+    }
+
+    /**
+     * Generates a single wide block, used to measure lookups on nodes with many children.
+     * @param width the amount of values in the block
+     * @return the document */
+    static String generateWide(int width) {
+        StringBuilder builder = new StringBuilder(width * 40 + 16);
+        builder.append("\"root\"\n{\n");
+        for (int i = 0; i < width; i++) {
+            appendValue(builder, "key_" + i, VALUES[i % VALUES.length], 1);
+        }
+        builder.append("}\n");
+        return builder.toString();
+    }
+
+    private static void appendBlock(StringBuilder builder, String name, int width, int depth, int level) {
+        indent(builder, level).append('"').append(name).append("\"\n");
+        indent(builder, level).append("{\n");
+        for (int i = 0; i < width; i++) {
+            int type = i % KEYS.length;
+            appendValue(builder, KEYS[type], VALUES[type], level + 1);
+        }
+        if (depth > 0) {
+            appendBlock(builder, "child", width, depth - 1, level + 1);
+        }
+        indent(builder, level).append("}\n");
+    }
+
+    private static void appendValue(StringBuilder builder, String key, String value, int level) {
+        indent(builder, level).append('"').append(key).append("\" \"").append(value).append("\"\n");
+    }
+
+    private static StringBuilder indent(StringBuilder builder, int level) {
+        for (int i = 0; i < level; i++) {
+            builder.append("    ");
+        }
+        return builder;
+    }
+
+}
@@ -0,0 +1,103 @@
+/*
+Copyright 2023 Arete
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package it.aretesoftware.gdx.jvdf.benchmarks;
+
+import it.aretesoftware.gdx.jvdf.VDFExecution;
+import it.aretesoftware.gdx.jvdf.VDFPreprocessor;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link VDFPreprocessor#processLines(String[])} with each {@link VDFExecution} over an increasing amount of
+ * lines, to find where running in parallel starts paying off on a given machine and tune
+ * {@link VDFExecution#DEFAULT_THRESHOLD} and {@link VDFExecution#DEFAULT_CHUNK_SIZE} accordingly.
+ * @author BucketOfBroccoli */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class VDFExecutionBenchmark {
+
+    @Param({ "sequential", "forkJoin", "executor", "automatic" })
+    public String execution;
+
+    @Param({ "16", "256", "1024", "4096", "16384", "65536" })
+    public int lines;
+
+    @Param({ "128", "512", "2048" })
+    public int chunkSize;
+
+    private ForkJoinPool pool;
+    private ExecutorService executor;
+    private VDFPreprocessor preprocessor;
+    private String[] source;
+
+    @Setup
+    public void setup() {
+        pool = new ForkJoinPool();
+        executor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+        switch (execution) {
+            case "sequential":
+                preprocessor = new VDFPreprocessor(VDFExecution.sequential());
+                break;
+            case "forkJoin":
+                preprocessor = new VDFPreprocessor(VDFExecution.forkJoin(pool, chunkSize));
+                break;
+            case "executor":
+                preprocessor = new VDFPreprocessor(VDFExecution.executor(executor, chunkSize));
+                break;
+            default:
+                preprocessor = new VDFPreprocessor(VDFExecution.automatic(VDFExecution.DEFAULT_THRESHOLD, VDFExecution.forkJoin(pool, chunkSize)));
+                break;
+        }
+        String[] all = VDFDocuments.generate(16, 0, lines / 16 + 1).split("\\n");
+        source = Arrays.copyOf(all, Math.min(lines, all.length));
+    }
+
+    @TearDown
+    public void tearDown() {
+        pool.shutdown();
+        executor.shutdown();
+    }
+
+    @Benchmark
+    public String[] processLines() {
+        String[] copy = source.clone();
+        preprocessor.processLines(copy);
+        return copy;
+    }
+
+}
@@ -0,0 +1,87 @@
+/*
+Copyright 2023 Arete
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+
+package it.aretesoftware.gdx.jvdf.benchmarks;
+
+import it.aretesoftware.gdx.jvdf.VDFNode;
+import it.aretesoftware.gdx.jvdf.VDFParser;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures reading a whole tree parsed by {@link VDFParser#parseLazy(String)} against {@link VDFParser#parse(String)},
+ * over documents of about the same amount of blocks nested {@code depth} levels deep, so the cost of opening every
+ * level on its own shows up as the documents get deeper.
+ * @author BucketOfBroccoli */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class VDFLazyBenchmark {
+
+    @Param({ "1", "16", "256" })
+    public int depth;
+
+    private final VDFParser parser = new VDFParser();
+
+    private String vdf;
+
+    @Setup
+    public void setup() {
+        vdf = VDFDocuments.generate(4, depth, 16384 / (depth + 1));
+    }
+
+    @Benchmark
+    public int parse() {
+        return countNodes(parser.parse(vdf));
+    }
+
+    @Benchmark
+    public int parseLazy() {
+        return countNodes(parser.parseLazy(vdf));
+    }
+
+    /** Visits every node, building the children of lazy ones. */
+    private static int countNodes(VDFNode root) {
+        ArrayDeque<VDFNode> pending = new ArrayDeque<>();
+        pending.push(root);
+        int count = 0;
+        while (!pending.isEmpty()) {
+            count++;
+            for (VDFNode child = pending.pop().child(); child != null; child = child.next) {
+                pending.push(child);
+            }
+        }
+        return count;
+    }
+
+}
@@ -0,0 +1,112 @@
+/*
+Copyright 2023 Arete
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package it.aretesoftware.gdx.jvdf.benchmarks;
+
+import com.badlogic.gdx.graphics.Color;
+
+import it.aretesoftware.gdx.jvdf.VDFNode;
+import it.aretesoftware.gdx.jvdf.VDFParser;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures lookups and typed conversions on {@link VDFNode}. Lookups run on a single node with {@code width}
+ * children, named so that the looked up child is the last one, with and without {@link VDFNode#setIndexed(boolean)}. Typed conversions are memoized by the node, so the
+ * asX benchmarks measure repeated reads of the same value.
+ * @author BucketOfBroccoli */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class VDFNodeBenchmark {
+
+    @Param({ "8", "64", "1024" })
+    public int width;
+
+    private VDFNode wide, indexed, block;
+    private String lastKey;
+
+    @Setup
+    public void setup() {
+        VDFParser parser = new VDFParser();
+        wide = parser.parse(VDFDocuments.generateWide(width)).get("root");
+        indexed = parser.parse(VDFDocuments.generateWide(width)).get("root");
+        indexed.setIndexed(true);
+        lastKey = "key_" + (width - 1);
+        block = parser.parse(VDFDocuments.generate(VDFDocuments.KEYS.length, 0, 1)).get("root").get("block_0");
+    }
+
+    @Benchmark
+    public VDFNode getName() {
+        return wide.get(lastKey);
+    }
+
+    @Benchmark
+    public VDFNode getNameIndexed() {
+        return indexed.get(lastKey);
+    }
+
+    @Benchmark
+    public VDFNode getIndex() {
+        return wide.get(width - 1);
+    }
+
+    @Benchmark
+    public int count() {
+        return wide.count(lastKey);
+    }
+
+    @Benchmark
+    public int countIndexed() {
+        return indexed.count(lastKey);
+    }
+
+    @Benchmark
+    public int asInt() {
+        return block.get("int").asInt();
+    }
+
+    @Benchmark
+    public float asFloat() {
+        return block.get("float").asFloat();
+    }
+
+    @Benchmark
+    public boolean asBoolean() {
+        return block.get("bool").asBoolean();
+    }
+
+    @Benchmark
+    public Color asColor() {
+        return block.get("color").asColor();
+    }
+
+}
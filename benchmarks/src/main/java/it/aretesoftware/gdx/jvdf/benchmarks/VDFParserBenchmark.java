@@ -0,0 +1,139 @@
+/*
+Copyright 2023 Arete
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package it.aretesoftware.gdx.jvdf.benchmarks;
+
+import it.aretesoftware.gdx.jvdf.VDFHandler;
+import it.aretesoftware.gdx.jvdf.VDFNode;
+import it.aretesoftware.gdx.jvdf.VDFParser;
+import it.aretesoftware.gdx.jvdf.VDFPreprocessor;
+import it.aretesoftware.gdx.jvdf.VDFReader;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link VDFParser#parse(String)} and {@link VDFParser#parse(String[])} over generated documents, both
+ * through the single-pass tokenizer and through the {@link VDFPreprocessor}, and {@link VDFParser#parseLazy(String)}
+ * followed by a single lookup. {@link VDFParser#parseParallel(String)} runs on the common pool, so its results depend
+ * on the amount of available processors. {@link VDFParser#parse(String, VDFHandler)} only counts values, without
+ * building any node.
+ * @author BucketOfBroccoli */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class VDFParserBenchmark {
+
+    @Param({ "4", "16" })
+    public int width;
+
+    @Param({ "0", "4" })
+    public int depth;
+
+    @Param({ "100", "10000" })
+    public int size;
+
+    private final VDFParser parser = new VDFParser();
+    private final VDFParser preprocessingParser = new VDFParser(new VDFPreprocessor());
+
+    private String vdf;
+    private String[] lines;
+
+    @Setup
+    public void setup() {
+        vdf = VDFDocuments.generate(width, depth, size);
+        lines = vdf.split("\\n");
+    }
+
+    @Benchmark
+    public VDFNode parse() {
+        return parser.parse(vdf);
+    }
+
+    @Benchmark
+    public VDFNode parseLines() {
+        return parser.parse(lines);
+    }
+
+    @Benchmark
+    public VDFNode parseLazy() {
+        return parser.parseLazy(vdf);
+    }
+
+    @Benchmark
+    public VDFNode parseLazyAndGet() {
+        return parser.parseLazy(vdf).get("root").get("block_" + (size / 2)).get("name");
+    }
+
+    @Benchmark
+    public VDFNode parseParallel() {
+        return parser.parseParallel(vdf);
+    }
+
+    @Benchmark
+    public VDFNode parsePreprocessed() {
+        return preprocessingParser.parse(vdf);
+    }
+
+    @Benchmark
+    public int parseHandler() {
+        CountingHandler handler = new CountingHandler();
+        parser.parse(vdf, handler);
+        return handler.values;
+    }
+
+    @Benchmark
+    public int parseReader() {
+        VDFReader reader = new VDFReader(vdf);
+        int values = 0;
+        while (reader.next() != VDFReader.Token.END_DOCUMENT) {
+            if (reader.token() == VDFReader.Token.VALUE) values++;
+        }
+        return values;
+    }
+
+    private static final class CountingHandler implements VDFHandler {
+        int values;
+
+        @Override
+        public void value(String name, CharSequence value) {
+            values++;
+        }
+
+        @Override
+        public void beginSubNode(String name) {
+        }
+
+        @Override
+        public void endSubNode() {
+        }
+    }
+
+}
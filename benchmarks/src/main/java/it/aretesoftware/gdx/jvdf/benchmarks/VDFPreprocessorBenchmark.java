@@ -0,0 +1,80 @@
+/*
+Copyright 2023 Arete
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package it.aretesoftware.gdx.jvdf.benchmarks;
+
+import it.aretesoftware.gdx.jvdf.VDFPreprocessor;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link VDFPreprocessor#processLine(String)} line by line, and {@link VDFPreprocessor#process(String)}
+ * over whole generated documents.
+ * @author BucketOfBroccoli */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class VDFPreprocessorBenchmark {
+
+    @Param({ "4", "16" })
+    public int width;
+
+    @Param({ "0", "4" })
+    public int depth;
+
+    @Param({ "100", "10000" })
+    public int size;
+
+    private final VDFPreprocessor preprocessor = new VDFPreprocessor();
+
+    private String vdf;
+    private String[] lines;
+
+    @Setup
+    public void setup() {
+        vdf = VDFDocuments.generate(width, depth, size);
+        lines = vdf.split("\\n");
+    }
+
+    @Benchmark
+    public void processLine(Blackhole blackhole) {
+        for (String line : lines) {
+            blackhole.consume(preprocessor.processLine(line));
+        }
+    }
+
+    @Benchmark
+    public String process() {
+        return preprocessor.process(vdf);
+    }
+
+}
@@ -0,0 +1,83 @@
+/*
+Copyright 2023 Arete
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package it.aretesoftware.gdx.jvdf.benchmarks;
+
+import it.aretesoftware.gdx.jvdf.VDFNode;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link VDFNode#toVDFString()} and {@link VDFNode#toVDFString(Appendable)} on deep trees, a chain of
+ * {@code size} nested subnodes, and on wide trees, a single subnode with {@code size} values.
+ * @author BucketOfBroccoli */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class VDFSerializerBenchmark {
+
+    @Param({ "deep", "wide" })
+    public String shape;
+
+    @Param({ "100", "1000" })
+    public int size;
+
+    private VDFNode root;
+    private final StringBuilder builder = new StringBuilder();
+
+    @Setup
+    public void setup() {
+        root = new VDFNode();
+        VDFNode current = root;
+        for (int i = 0; i < size; i++) {
+            if (shape.equals("deep")) {
+                VDFNode child = new VDFNode();
+                current.addChild("node", child);
+                current = child;
+            }
+            else {
+                current.addChild("key_" + i, "value_" + i);
+            }
+        }
+    }
+
+    @Benchmark
+    public String toVDFString() {
+        return root.toVDFString();
+    }
+
+    @Benchmark
+    public int toVDFStringAppendable() {
+        builder.setLength(0);
+        return root.toVDFString(builder).length();
+    }
+
+}
@@ -0,0 +1,142 @@
+/*
+Copyright 2023 Arete
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package it.aretesoftware.gdx.jvdf.benchmarks;
+
+import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.math.Vector2;
+import com.badlogic.gdx.math.Vector3;
+
+import it.aretesoftware.gdx.jvdf.VDFUtils;
+import it.aretesoftware.utils.NumberUtils;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the classification and conversion of values in {@link VDFUtils}, over the kind of values found in
+ * sample_types.txt. The regex based implementation VDFUtils used before is kept for comparison.
+ * @author BucketOfBroccoli */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class VDFUtilsBenchmark {
+
+    private static final String[] VALUES = {
+            "123456", "100", "1000.0", "123.456", "true", "Test!", "a",
+            "1.0 1.0 1.0 1.0", "1.0 1.0 1.0", "0.0 1.0", "first"
+    };
+
+    private final Color color = new Color();
+
+    @Benchmark
+    public void toObject(Blackhole blackhole) {
+        for (String value : VALUES) {
+            blackhole.consume(VDFUtils.toObject(value));
+        }
+    }
+
+    @Benchmark
+    public void toObjectRegex(Blackhole blackhole) {
+        for (String value : VALUES) {
+            blackhole.consume(RegexUtils.toObject(value));
+        }
+    }
+
+    @Benchmark
+    public Color toColor() {
+        return VDFUtils.toColor("0.1 0.2 0.3 1.0");
+    }
+
+    @Benchmark
+    public Color toColorRegex() {
+        return RegexUtils.toColor("0.1 0.2 0.3 1.0");
+    }
+
+    @Benchmark
+    public Color parseColor() {
+        return VDFUtils.parseColor("0.1 0.2 0.3 1.0", color);
+    }
+
+    /**
+     * The regex based conversions VDFUtils used before the single pass scanner. */
+    static class RegexUtils {
+
+        private static final String WHITESPACE_REGEX = "[ \\t\\n]+";
+        private static final String TRAILLESS_NUMBER_REGEX = "^(\\+|-)?([0-9])*\\.?([0-9]+)?(f|F)?$";
+
+        static Object toObject(String value) {
+            if (isStringDataValid(value, 4)) {
+                return toColor(value);
+            }
+            else if (isStringDataValid(value, 3)) {
+                String[] split = value.trim().split(WHITESPACE_REGEX);
+                return new Vector3(Float.parseFloat(split[0]), Float.parseFloat(split[1]), Float.parseFloat(split[2]));
+            }
+            else if (isStringDataValid(value, 2)) {
+                String[] split = value.trim().split(WHITESPACE_REGEX);
+                return new Vector2(Float.parseFloat(split[0]), Float.parseFloat(split[1]));
+            }
+            else if (VDFUtils.isBoolean(value)) {
+                return VDFUtils.toBoolean(value);
+            }
+            else if (NumberUtils.isNumber(value)) {
+                return NumberUtils.toNumber(value);
+            }
+            return value;
+        }
+
+        static Color toColor(String value) {
+            if (!isStringDataValid(value, 4)) {
+                throw new IllegalArgumentException(value);
+            }
+            String[] split = value.trim().split(WHITESPACE_REGEX);
+            return new Color(Float.parseFloat(split[0]), Float.parseFloat(split[1]),
+                    Float.parseFloat(split[2]), Float.parseFloat(split[3]));
+        }
+
+        private static boolean isStringDataValid(String value, int arrayLengthAllowed) {
+            if (value == null || value.isEmpty()) {
+                return false;
+            }
+            String[] split = value.trim().split(WHITESPACE_REGEX);
+            if (split.length != arrayLengthAllowed) {
+                return false;
+            }
+            for (String number : split) {
+                if (!number.matches(TRAILLESS_NUMBER_REGEX)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+    }
+
+}
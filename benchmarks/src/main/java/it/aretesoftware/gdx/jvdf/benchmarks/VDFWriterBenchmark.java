@@ -0,0 +1,161 @@
+/*
+Copyright 2023 Arete
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package it.aretesoftware.gdx.jvdf.benchmarks;
+
+import com.badlogic.gdx.graphics.Color;
+
+import it.aretesoftware.gdx.jvdf.VDFNode;
+import it.aretesoftware.gdx.jvdf.VDFParser;
+import it.aretesoftware.gdx.jvdf.VDFWriter;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.Writer;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link VDFNode#toVDFString()} and {@link VDFWriter}, both writing value by value and writing whole
+ * parsed trees, into a String or streamed to a {@link Writer}, in every output type over generated documents.
+ * @author BucketOfBroccoli */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class VDFWriterBenchmark {
+
+    @Param({ "4", "16" })
+    public int width;
+
+    @Param({ "0", "4" })
+    public int depth;
+
+    @Param({ "100", "10000" })
+    public int size;
+
+    @Param({ "PRETTY", "COMPACT", "MINIMAL" })
+    public VDFWriter.OutputType outputType;
+
+    private VDFNode root;
+    private final Color color = new Color(0.1f, 0.2f, 0.3f, 1f);
+
+    @Setup
+    public void setup() {
+        root = new VDFParser().parse(VDFDocuments.generate(width, depth, size)).get("root");
+    }
+
+    @Benchmark
+    public String toVDFString() {
+        return root.toVDFString(outputType);
+    }
+
+    @Benchmark
+    public String writeNode() {
+        return new VDFWriter().setOutputType(outputType).writeNode(root).toVDFString();
+    }
+
+    @Benchmark
+    public String writeValues() {
+        VDFWriter writer = new VDFWriter().setOutputType(outputType);
+        writeValues(writer);
+        return writer.toVDFString();
+    }
+
+    @Benchmark
+    public long writeValuesStreaming() {
+        CountingWriter output = new CountingWriter();
+        VDFWriter writer = new VDFWriter(output).setOutputType(outputType);
+        writeValues(writer);
+        writer.close();
+        return output.count;
+    }
+
+    @Benchmark
+    public long writeNumbers() {
+        CountingWriter output = new CountingWriter();
+        VDFWriter writer = new VDFWriter(output).setOutputType(outputType);
+        for (int i = 0; i < size * width; i++) {
+            writer.writeValue("int", i).writeValue("float", i * 0.1f).writeValue("color", color);
+        }
+        writer.close();
+        return output.count;
+    }
+
+    private void writeValues(VDFWriter writer) {
+        writer.writeNodeStart("root");
+        for (int i = 0; i < size; i++) {
+            writer.writeNodeStart("block");
+            writeBlock(writer, depth);
+            writer.writeNodeEnd();
+        }
+        writer.writeNodeEnd();
+    }
+
+    private void writeBlock(VDFWriter writer, int depth) {
+        for (int i = 0; i < width; i++) {
+            switch (i % 4) {
+                case 0:
+                    writer.writeValue("name", "item");
+                    break;
+                case 1:
+                    writer.writeValue("int", i);
+                    break;
+                case 2:
+                    writer.writeValue("float", i * 0.5f);
+                    break;
+                default:
+                    writer.writeValue("bool", true);
+                    break;
+            }
+        }
+        if (depth > 0) {
+            writer.writeNodeStart("child");
+            writeBlock(writer, depth - 1);
+            writer.writeNodeEnd();
+        }
+    }
+
+    /** Discards what's written, so only the cost of writing is measured. */
+    private static final class CountingWriter extends Writer {
+        long count;
+
+        @Override
+        public void write(char[] chars, int offset, int length) {
+            count += length;
+        }
+
+        @Override
+        public void flush() {
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+
+}
@@ -0,0 +1,241 @@
+/*
+Copyright 2023 Arete
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package it.aretesoftware.gdx.jvdf;
+
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.utils.StreamUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Parses binary KeyValues documents, the format of Steam's appinfo.vdf and shortcuts.vdf, into the same
+ * iterable tree structures produced by {@link VDFParser}.
+ * <p>
+ * Every entry starts with a type byte followed by a null-terminated UTF-8 name. Subnodes are closed by
+ * {@link #TYPE_END}, and so is the whole document, which may also simply end with the buffer. Numbers are
+ * little-endian and stored in nodes as their text form, so the tree can be read with the usual asX methods.
+ * @author BucketOfBroccoli */
+public class VDFBinaryParser {
+
+    public static final byte TYPE_NODE = 0x00;
+    public static final byte TYPE_STRING = 0x01;
+    public static final byte TYPE_INT = 0x02;
+    public static final byte TYPE_FLOAT = 0x03;
+    public static final byte TYPE_POINTER = 0x04;
+    public static final byte TYPE_WIDE_STRING = 0x05;
+    public static final byte TYPE_COLOR = 0x06;
+    public static final byte TYPE_UINT64 = 0x07;
+    public static final byte TYPE_END = 0x08;
+    public static final byte TYPE_INT64 = 0x0A;
+    /** Alternate end of node marker, found in some documents. */
+    public static final byte TYPE_ALTERNATE_END = 0x0B;
+
+    /** Scratch buffer for decoding names and values that aren't backed by an accessible array. */
+    private byte[] scratch = new byte[64];
+
+    /**
+     * Parses a binary VDF document, starting at the buffer's position. The position is advanced past the document,
+     * while the buffer's byte order is left untouched.
+     * @param buffer the buffer holding the binary VDF document
+     * @return a VDFNode which represents the root of the VDF document
+     * @throws VDFParseException if the document is malformed or truncated
+     */
+    public VDFNode parse(ByteBuffer buffer) {
+        ByteOrder order = buffer.order();
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+        try {
+            VDFNode root = new VDFNode();
+            VDFNode current = root;
+            while (buffer.hasRemaining()) {
+                byte type = buffer.get();
+                if (type == TYPE_END || type == TYPE_ALTERNATE_END) {
+                    if (current == root) {
+                        break;
+                    }
+                    current = current.parent;
+                    continue;
+                }
+                String name = readString(buffer);
+                switch (type) {
+                    case TYPE_NODE:
+                        VDFNode node = new VDFNode();
+                        current.addChild(name, node);
+                        current = node;
+                        break;
+                    case TYPE_STRING:
+                        current.addChild(name, readString(buffer));
+                        break;
+                    case TYPE_INT:
+                    case TYPE_POINTER:
+                        current.addChild(name, Integer.toString(buffer.getInt()));
+                        break;
+                    case TYPE_FLOAT:
+                        current.addChild(name, Float.toString(buffer.getFloat()));
+                        break;
+                    case TYPE_WIDE_STRING:
+                        current.addChild(name, readWideString(buffer));
+                        break;
+                    case TYPE_COLOR:
+                        current.addChild(name, readColor(buffer));
+                        break;
+                    case TYPE_UINT64:
+                        current.addChild(name, Long.toUnsignedString(buffer.getLong()));
+                        break;
+                    case TYPE_INT64:
+                        current.addChild(name, Long.toString(buffer.getLong()));
+                        break;
+                    default:
+                        throw new VDFParseException("Unknown binary VDF type " + type + " for node '" + name + "'.");
+                }
+            }
+            if (current != root) {
+                throw new VDFParseException("Unexpected end of binary VDF document, " + depth(current) + " node(s) left open.");
+            }
+            return root;
+        }
+        catch (BufferUnderflowException e) {
+            throw new VDFParseException("Unexpected end of binary VDF document.", e);
+        }
+        finally {
+            buffer.order(order);
+        }
+    }
+
+    /**
+     * Parses a binary VDF document.
+     * @param bytes the binary VDF document
+     * @return a VDFNode which represents the root of the VDF document
+     * @throws VDFParseException if the document is malformed or truncated
+     */
+    public VDFNode parse(byte[] bytes) {
+        return parse(ByteBuffer.wrap(bytes));
+    }
+
+    /**
+     * Parses a binary VDF document from an {@link InputStream}. The stream is read fully and closed afterwards.
+     * @param input the stream of the binary VDF document
+     * @return a VDFNode which represents the root of the VDF document
+     * @throws VDFParseException if the stream couldn't be read, or the document is malformed or truncated
+     */
+    public VDFNode parse(InputStream input) {
+        try {
+            byte[] bytes = new byte[8192];
+            int length = 0, read;
+            while ((read = input.read(bytes, length, bytes.length - length)) != -1) {
+                length += read;
+                if (length == bytes.length) {
+                    byte[] newBytes = new byte[bytes.length << 1];
+                    System.arraycopy(bytes, 0, newBytes, 0, length);
+                    bytes = newBytes;
+                }
+            }
+            return parse(ByteBuffer.wrap(bytes, 0, length));
+        }
+        catch (IOException e) {
+            throw new VDFParseException("Error reading binary VDF document.", e);
+        }
+        finally {
+            StreamUtils.closeQuietly(input);
+        }
+    }
+
+    /**
+     * Parses a binary VDF document from a {@link FileHandle}.
+     * @param file the file of the binary VDF document
+     * @return a VDFNode which represents the root of the VDF document
+     * @throws VDFParseException if the file couldn't be read, or the document is malformed or truncated
+     */
+    public VDFNode parse(FileHandle file) {
+        return parse(file.read());
+    }
+
+    /**
+     * Reads a null-terminated UTF-8 string. Pure ASCII strings, the vast majority of names, are decoded without
+     * going through the UTF-8 decoder.
+     */
+    private String readString(ByteBuffer buffer) {
+        int start = buffer.position(), limit = buffer.limit(), end = start;
+        boolean ascii = true;
+        for (; end < limit; end++) {
+            byte b = buffer.get(end);
+            if (b == 0) break;
+            if (b < 0) ascii = false;
+        }
+        if (end == limit) {
+            throw new BufferUnderflowException();
+        }
+        int length = end - start;
+        buffer.position(end + 1);
+        if (length == 0) {
+            return "";
+        }
+        if (buffer.hasArray()) {
+            byte[] array = buffer.array();
+            int offset = buffer.arrayOffset() + start;
+            return ascii
+                    ? new String(array, offset, length, StandardCharsets.ISO_8859_1)
+                    : new String(array, offset, length, StandardCharsets.UTF_8);
+        }
+        byte[] bytes = scratch(length);
+        for (int i = 0; i < length; i++) {
+            bytes[i] = buffer.get(start + i);
+        }
+        return ascii
+                ? new String(bytes, 0, length, StandardCharsets.ISO_8859_1)
+                : new String(bytes, 0, length, StandardCharsets.UTF_8);
+    }
+
+    /** Reads a null-terminated little-endian UTF-16 string. */
+    private String readWideString(ByteBuffer buffer) {
+        StringBuilder builder = new StringBuilder();
+        char c;
+        while ((c = buffer.getChar()) != 0) {
+            builder.append(c);
+        }
+        return builder.toString();
+    }
+
+    /** Reads a RGBA color, one byte per component, as a VDF color string. */
+    private String readColor(ByteBuffer buffer) {
+        float r = (buffer.get() & 0xFF) / 255f;
+        float g = (buffer.get() & 0xFF) / 255f;
+        float b = (buffer.get() & 0xFF) / 255f;
+        float a = (buffer.get() & 0xFF) / 255f;
+        return VDFUtils.toColorString(r, g, b, a);
+    }
+
+    private byte[] scratch(int length) {
+        if (scratch.length < length) {
+            scratch = new byte[Math.max(length, scratch.length << 1)];
+        }
+        return scratch;
+    }
+
+    private static int depth(VDFNode node) {
+        int depth = 0;
+        for (; node.parent != null; node = node.parent) {
+            depth++;
+        }
+        return depth;
+    }
+
+}
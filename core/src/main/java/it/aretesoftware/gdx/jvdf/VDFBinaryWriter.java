@@ -0,0 +1,257 @@
+/*
+Copyright 2023 Arete
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package it.aretesoftware.gdx.jvdf;
+
+import com.badlogic.gdx.graphics.Color;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Writes binary KeyValues documents, readable by {@link VDFBinaryParser}, into a growable byte array.
+ * <p>
+ * Values of written {@link VDFNode}s are stored as strings, so a tree survives the round trip exactly. The typed
+ * writeValue methods store numbers and colors with their binary types instead.
+ * @author BucketOfBroccoli */
+public class VDFBinaryWriter {
+
+    private byte[] bytes;
+    private int size;
+    private int depth;
+
+    public VDFBinaryWriter() {
+        this(1024);
+    }
+
+    /** @param capacity the initial capacity of the byte array, in bytes */
+    public VDFBinaryWriter(int capacity) {
+        this.bytes = new byte[Math.max(capacity, 16)];
+    }
+
+
+    /**
+     * Writes the start of a {@link VDFNode}.
+     * @param name the name of the newly started {@link VDFNode}
+     * @return this {@link VDFBinaryWriter} for chaining */
+    public VDFBinaryWriter writeNodeStart(String name) {
+        writeByte(VDFBinaryParser.TYPE_NODE);
+        writeString(name);
+        depth++;
+        return this;
+    }
+
+    /**
+     * Writes the end of the previously started {@link VDFNode}.
+     * @return this {@link VDFBinaryWriter} for chaining */
+    public VDFBinaryWriter writeNodeEnd() {
+        if (depth > 0) {
+            depth--;
+            writeByte(VDFBinaryParser.TYPE_END);
+        }
+        return this;
+    }
+
+    /**
+     * Writes a node and all of its children in the current {@link VDFNode}. If the node is the root of a document,
+     * only its children are written. Its "prev" and "next" nodes are never written.
+     * @param node to write
+     * @return this {@link VDFBinaryWriter} for chaining */
+    public VDFBinaryWriter writeNode(VDFNode node) {
+        if (node.parent == null && node.name == null) {
+            for (VDFNode child = node.child(); child != null; child = child.next) {
+                writeNode(child);
+            }
+            return this;
+        }
+        VDFNode current = node;
+        while (true) {
+            VDFNode child = current.child();
+            if (child == null && !current.isNull()) {
+                writeValue(current.name, current.asString());
+            }
+            else {
+                writeNodeStart(current.name);
+                if (child != null) {
+                    current = child;
+                    continue;
+                }
+                writeNodeEnd();
+            }
+            // Climb back up until a node with a next sibling is found, closing the subnodes along the way
+            while (current != node && current.next == null) {
+                current = current.parent;
+                writeNodeEnd();
+            }
+            if (current == node) {
+                return this;
+            }
+            current = current.next;
+        }
+    }
+
+    /**
+     * Writes nodes and all of their children in the current {@link VDFNode}.
+     * @param nodes to write
+     * @return this {@link VDFBinaryWriter} for chaining */
+    public VDFBinaryWriter writeNodes(VDFNode... nodes) {
+        for (VDFNode node : nodes) {
+            writeNode(node);
+        }
+        return this;
+    }
+
+    /**
+     * Writes a value in the current {@link VDFNode}.
+     * @param name the name of the associated value
+     * @param value the value to write, as a String
+     * @return this {@link VDFBinaryWriter} for chaining */
+    public VDFBinaryWriter writeValue(String name, String value) {
+        writeByte(VDFBinaryParser.TYPE_STRING);
+        writeString(name);
+        writeString(value);
+        return this;
+    }
+
+    /**
+     * Writes a value in the current {@link VDFNode}.
+     * @param name the name of the associated value
+     * @param value the value to write, as an int32
+     * @return this {@link VDFBinaryWriter} for chaining */
+    public VDFBinaryWriter writeValue(String name, int value) {
+        writeByte(VDFBinaryParser.TYPE_INT);
+        writeString(name);
+        writeInt(value);
+        return this;
+    }
+
+    /**
+     * Writes a value in the current {@link VDFNode}.
+     * @param name the name of the associated value
+     * @param value the value to write, as a float32
+     * @return this {@link VDFBinaryWriter} for chaining */
+    public VDFBinaryWriter writeValue(String name, float value) {
+        writeByte(VDFBinaryParser.TYPE_FLOAT);
+        writeString(name);
+        writeInt(Float.floatToIntBits(value));
+        return this;
+    }
+
+    /**
+     * Writes a value in the current {@link VDFNode}.
+     * @param name the name of the associated value
+     * @param value the value to write, as a signed int64
+     * @return this {@link VDFBinaryWriter} for chaining */
+    public VDFBinaryWriter writeValue(String name, long value) {
+        writeByte(VDFBinaryParser.TYPE_INT64);
+        writeString(name);
+        writeInt((int) value);
+        writeInt((int) (value >>> 32));
+        return this;
+    }
+
+    /**
+     * Writes a value in the current {@link VDFNode}.
+     * @param name the name of the associated value
+     * @param value the value to write, as a String
+     * @return this {@link VDFBinaryWriter} for chaining */
+    public VDFBinaryWriter writeValue(String name, boolean value) {
+        return writeValue(name, VDFUtils.toBooleanString(value));
+    }
+
+    /**
+     * Writes a value in the current {@link VDFNode}. Components are stored as bytes, so they lose precision.
+     * @param name the name of the associated value
+     * @param value the value to write, as a RGBA color
+     * @return this {@link VDFBinaryWriter} for chaining */
+    public VDFBinaryWriter writeValue(String name, Color value) {
+        writeByte(VDFBinaryParser.TYPE_COLOR);
+        writeString(name);
+        writeByte((byte) Math.round(value.r * 255));
+        writeByte((byte) Math.round(value.g * 255));
+        writeByte((byte) Math.round(value.b * 255));
+        writeByte((byte) Math.round(value.a * 255));
+        return this;
+    }
+
+    /**
+     * Returns the written document, closing any node left open and terminating the document.
+     * @return the binary VDF document as a byte array */
+    public byte[] toByteArray() {
+        byte[] document = new byte[size + depth + 1];
+        System.arraycopy(bytes, 0, document, 0, size);
+        for (int i = size; i < document.length; i++) {
+            document[i] = VDFBinaryParser.TYPE_END;
+        }
+        return document;
+    }
+
+    /**
+     * Returns the written document, closing any node left open and terminating the document.
+     * @return the binary VDF document as a {@link ByteBuffer}, ready to be read */
+    public ByteBuffer toByteBuffer() {
+        return ByteBuffer.wrap(toByteArray());
+    }
+
+    /**
+     * Returns the parsed contents of the written document.
+     * @return the VDF document as a {@link VDFNode}. */
+    public VDFNode toVDFNode() {
+        return new VDFBinaryParser().parse(toByteArray());
+    }
+
+    private void writeByte(byte b) {
+        ensureCapacity(1);
+        bytes[size++] = b;
+    }
+
+    private void writeInt(int value) {
+        ensureCapacity(4);
+        bytes[size++] = (byte) value;
+        bytes[size++] = (byte) (value >>> 8);
+        bytes[size++] = (byte) (value >>> 16);
+        bytes[size++] = (byte) (value >>> 24);
+    }
+
+    /** Writes a null-terminated UTF-8 string, encoding pure ASCII strings without going through the UTF-8 encoder. */
+    private void writeString(String value) {
+        int length = value.length();
+        ensureCapacity(length + 1);
+        int start = size;
+        for (int i = 0; i < length; i++) {
+            char c = value.charAt(i);
+            if (c >= 0x80) {
+                size = start;
+                byte[] encoded = value.getBytes(StandardCharsets.UTF_8);
+                ensureCapacity(encoded.length + 1);
+                System.arraycopy(encoded, 0, bytes, size, encoded.length);
+                size += encoded.length;
+                break;
+            }
+            bytes[size++] = (byte) c;
+        }
+        bytes[size++] = 0;
+    }
+
+    private void ensureCapacity(int additional) {
+        if (size + additional > bytes.length) {
+            byte[] newBytes = new byte[Math.max(size + additional, bytes.length << 1)];
+            System.arraycopy(bytes, 0, newBytes, 0, size);
+            bytes = newBytes;
+        }
+    }
+
+}
@@ -0,0 +1,258 @@
+/*
+Copyright 2023 Arete
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package it.aretesoftware.gdx.jvdf;
+
+import java.util.Arrays;
+
+/**
+ * Finds the subnodes of the first two levels of a VDF document in a single pass, without building any node. The scan
+ * follows the same rules as {@link VDFTokenizer} and {@link VDFParserState} for comments, conditionals, quotes and
+ * escapes, so it finds exactly the braces the parser would, but it only keeps track of what tells structural braces
+ * apart.
+ * @author BucketOfBroccoli */
+final class VDFBlockScanner {
+
+    /** The number of levels whose subnodes are recorded. */
+    static final int LEVELS = 2;
+
+    /** The subnodes found on each level, the subnodes of the root first. */
+    final Blocks[] levels = new Blocks[LEVELS];
+
+    // Tokenizer state
+    private boolean lineQuotes, skipLine, slashPending, spacePending, hitWord, blockComment, starPending;
+    // Parser state
+    private boolean quoteState, escapePending;
+    private int depth;
+
+    VDFBlockScanner() {
+        for (int i = 0; i < LEVELS; i++) {
+            levels[i] = new Blocks();
+        }
+    }
+
+    /**
+     * Scans a VDF document.
+     * @param vdf the VDF document to scan
+     * @param multiLine whether block comments and quoted strings may span lines, see
+     * {@link VDFTokenizer#setMultiLine(boolean)}
+     * @return false if the braces of the document are mismatched
+     */
+    boolean scan(String vdf, boolean multiLine) {
+        if (multiLine) return scanMultiLine(vdf);
+        char previous = 0;
+        for (int i = 0, length = vdf.length(); i < length; i++) {
+            char c = vdf.charAt(i);
+            char p = previous;
+            previous = c;
+
+            if (c == '\n') {
+                if (slashPending) {
+                    slashPending = false;
+                    character();
+                }
+                spacePending = hitWord;
+                lineQuotes = false;
+                skipLine = false;
+                previous = 0;
+                continue;
+            }
+            if (skipLine || c == '\r')
+                continue;
+            if (slashPending) {
+                slashPending = false;
+                if (c == '/' || c == '*') {
+                    skipLine = true;
+                    continue;
+                }
+                character();
+            }
+            if (c == '"' && p != '\\')
+                lineQuotes = !lineQuotes;
+            if (!lineQuotes) {
+                if (c == '/') {
+                    slashPending = true;
+                    continue;
+                }
+                if (c == '[') {
+                    skipLine = true;
+                    continue;
+                }
+            }
+            if (c == ' ' || c == '\t' || c == 0x0B) {
+                spacePending = hitWord;
+                continue;
+            }
+
+            if (!parse(c, i)) return false;
+        }
+        return depth == 0;
+    }
+
+    /**
+     * Scans a VDF document in multi-line mode, where the quoted strings followed are exactly those of the parser state.
+     * @param vdf the VDF document to scan
+     * @return false if the braces of the document are mismatched
+     */
+    private boolean scanMultiLine(String vdf) {
+        for (int i = 0, length = vdf.length(); i < length; i++) {
+            char c = vdf.charAt(i);
+
+            if (blockComment) {
+                if (starPending && c == '/') {
+                    blockComment = false;
+                    spacePending = hitWord;
+                }
+                starPending = c == '*';
+                continue;
+            }
+            if (c == '\n') {
+                if (slashPending) {
+                    slashPending = false;
+                    character();
+                }
+                skipLine = false;
+                if (quoteState) {
+                    if (!parse(c, i)) return false;
+                }
+                else {
+                    spacePending = hitWord;
+                }
+                continue;
+            }
+            if (skipLine || c == '\r')
+                continue;
+            if (slashPending) {
+                slashPending = false;
+                if (c == '/') {
+                    skipLine = true;
+                    continue;
+                }
+                if (c == '*') {
+                    blockComment = true;
+                    starPending = false;
+                    continue;
+                }
+                character();
+            }
+            if (!quoteState) {
+                if (c == '/') {
+                    slashPending = true;
+                    continue;
+                }
+                if (c == '[') {
+                    skipLine = true;
+                    continue;
+                }
+                if (c == ' ' || c == '\t' || c == 0x0B) {
+                    spacePending = hitWord;
+                    continue;
+                }
+            }
+            if (!parse(c, i)) return false;
+        }
+        return depth == 0;
+    }
+
+    /**
+     * Handles a character that reaches the parser state.
+     * @param c the character
+     * @param i the index of the character
+     * @return false if there are more closing braces than opening ones
+     */
+    private boolean parse(char c, int i) {
+        // A pending space only matters inside quotes
+        if (spacePending) {
+            spacePending = false;
+            if (quoteState) escapePending = false;
+        }
+        hitWord = true;
+        switch (c) {
+            case '"':
+                if (escapePending) escapePending = false;
+                else quoteState = !quoteState;
+                break;
+            case '\\':
+                escapePending = !escapePending;
+                break;
+            case '{':
+                if (escapePending || quoteState) {
+                    escapePending = false;
+                }
+                else if (++depth <= LEVELS) {
+                    levels[depth - 1].begin(i + 1, lineQuotes);
+                }
+                break;
+            case '}':
+                if (escapePending || quoteState) {
+                    escapePending = false;
+                }
+                else {
+                    if (depth <= LEVELS && depth > 0) {
+                        levels[depth - 1].end(i, lineQuotes);
+                    }
+                    if (--depth < 0) {
+                        return false;
+                    }
+                }
+                break;
+            default:
+                escapePending = false;
+                break;
+        }
+        return true;
+    }
+
+    /** Handles a '/' sent to the parser state. */
+    private void character() {
+        spacePending = false;
+        hitWord = true;
+        escapePending = false;
+    }
+
+    /**
+     * The subnodes found on a level, in the order they appear in the document.
+     */
+    static final class Blocks {
+        /** The index after the opening brace of each subnode. */
+        int[] starts = new int[64];
+        /** The index of the closing brace of each subnode. */
+        int[] ends = new int[64];
+        /** Whether the lines of the opening and closing braces have unclosed quotes after them. */
+        boolean[] startsLineQuoted = new boolean[64], endsLineQuoted = new boolean[64];
+        /** The number of subnodes found. */
+        int size;
+
+        private void begin(int start, boolean lineQuoted) {
+            if (size == starts.length) {
+                int capacity = size << 1;
+                starts = Arrays.copyOf(starts, capacity);
+                ends = Arrays.copyOf(ends, capacity);
+                startsLineQuoted = Arrays.copyOf(startsLineQuoted, capacity);
+                endsLineQuoted = Arrays.copyOf(endsLineQuoted, capacity);
+            }
+            starts[size] = start;
+            startsLineQuoted[size] = lineQuoted;
+        }
+
+        private void end(int end, boolean lineQuoted) {
+            ends[size] = end;
+            endsLineQuoted[size] = lineQuoted;
+            size++;
+        }
+    }
+
+}
@@ -0,0 +1,200 @@
+/*
+Copyright 2023 Arete
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package it.aretesoftware.gdx.jvdf;
+
+/**
+ * Case-insensitive hashed index of the children of a {@link VDFNode}, grouped by name.
+ * Children sharing the same name (multimaps) are kept in the same order as in the linked list,
+ * so the n-th child with a given name can be found without walking the list.
+ * @author BucketOfBroccoli */
+final class VDFChildIndex {
+
+    private Entry[] table;
+    private int entries;
+
+    /** The number of indexed children. */
+    int size;
+
+    VDFChildIndex(VDFNode parent) {
+        table = new Entry[tableSize(parent.size)];
+        for (VDFNode node = parent.child; node != null; node = node.next) {
+            add(node);
+        }
+    }
+
+    /** @return the child with the specified name and ordinal, may be null */
+    VDFNode get(String name, int ordinal) {
+        Entry entry = find(name, hash(name));
+        return entry == null ? null : entry.get(ordinal);
+    }
+
+    /** @return the number of children with the specified name */
+    int count(String name) {
+        Entry entry = find(name, hash(name));
+        return entry == null ? 0 : entry.count;
+    }
+
+    /** Indexes a child added after the last child. */
+    void add(VDFNode node) {
+        size++;
+        if (node.name == null) return;
+        int hash = hash(node.name);
+        Entry entry = find(node.name, hash);
+        if (entry == null) {
+            if (entries >= table.length * 3 / 4) {
+                resize(table.length << 1);
+            }
+            int bucket = hash & (table.length - 1);
+            entry = new Entry(hash, node.name);
+            entry.next = table[bucket];
+            table[bucket] = entry;
+            entries++;
+        }
+        entry.add(node);
+    }
+
+    /** Removes a child from the index. */
+    void remove(VDFNode node) {
+        size--;
+        if (node.name == null) return;
+        int hash = hash(node.name);
+        int bucket = hash & (table.length - 1);
+        Entry previous = null;
+        for (Entry entry = table[bucket]; entry != null; previous = entry, entry = entry.next) {
+            if (entry.hash == hash && entry.name.equalsIgnoreCase(node.name)) {
+                entry.remove(node);
+                if (entry.count == 0) {
+                    if (previous == null) table[bucket] = entry.next;
+                    else previous.next = entry.next;
+                    entries--;
+                }
+                return;
+            }
+        }
+    }
+
+    /** Replaces a child with another child of the same name. */
+    void replace(VDFNode current, VDFNode value) {
+        Entry entry = find(value.name, hash(value.name));
+        if (entry == null) return;
+        for (int i = entry.start; i < entry.end; i++) {
+            if (entry.nodes[i] == current) {
+                entry.nodes[i] = value;
+                return;
+            }
+        }
+    }
+
+    private Entry find(String name, int hash) {
+        for (Entry entry = table[hash & (table.length - 1)]; entry != null; entry = entry.next) {
+            if (entry.hash == hash && entry.name.equalsIgnoreCase(name)) {
+                return entry;
+            }
+        }
+        return null;
+    }
+
+    private void resize(int length) {
+        Entry[] old = table;
+        table = new Entry[length];
+        for (Entry entry : old) {
+            while (entry != null) {
+                Entry next = entry.next;
+                int bucket = entry.hash & (length - 1);
+                entry.next = table[bucket];
+                table[bucket] = entry;
+                entry = next;
+            }
+        }
+    }
+
+    /** Hashes a name so that names equal according to {@link String#equalsIgnoreCase(String)} share the same hash. */
+    private static int hash(String name) {
+        int hash = 0;
+        for (int i = 0, length = name.length(); i < length; i++) {
+            hash = 31 * hash + Character.toLowerCase(Character.toUpperCase(name.charAt(i)));
+        }
+        return hash ^ (hash >>> 16);
+    }
+
+    private static int tableSize(int capacity) {
+        int size = 16;
+        while (size * 3 / 4 < capacity) {
+            size <<= 1;
+        }
+        return size;
+    }
+
+    /** The children sharing a name. Removed children leave a null in {@link #nodes}, which is compacted away by the next
+     * lookup by ordinal or when the array is full, so removing every child of a name one by one stays linear. */
+    private static final class Entry {
+        final int hash;
+        final String name;
+        VDFNode[] nodes = new VDFNode[1];
+        /** The range of {@link #nodes} in use, which holds {@link #count} children and nulls for the removed ones. */
+        int start, end;
+        int count;
+        Entry next;
+
+        Entry(int hash, String name) {
+            this.hash = hash;
+            this.name = name;
+        }
+
+        VDFNode get(int ordinal) {
+            if (ordinal >= count) return null;
+            if (count != end - start) compact(nodes.length);
+            return nodes[start + ordinal];
+        }
+
+        void add(VDFNode node) {
+            if (end == nodes.length) {
+                compact(Math.max(count << 1, 1));
+            }
+            nodes[end++] = node;
+            count++;
+        }
+
+        void remove(VDFNode node) {
+            for (int i = start; i < end; i++) {
+                if (nodes[i] == node) {
+                    nodes[i] = null;
+                    count--;
+                    while (start < end && nodes[start] == null) start++;
+                    while (end > start && nodes[end - 1] == null) end--;
+                    return;
+                }
+            }
+        }
+
+        /** Moves the children to the front of an array of the specified length, dropping the nulls of removed ones. */
+        private void compact(int length) {
+            VDFNode[] newNodes = length == nodes.length ? nodes : new VDFNode[length];
+            int j = 0;
+            for (int i = start; i < end; i++) {
+                if (nodes[i] != null) newNodes[j++] = nodes[i];
+            }
+            if (newNodes == nodes) {
+                for (int i = j; i < end; i++) nodes[i] = null;
+            }
+            nodes = newNodes;
+            start = 0;
+            end = j;
+        }
+    }
+
+}
@@ -0,0 +1,298 @@
+/*
+Copyright 2023 Arete
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package it.aretesoftware.gdx.jvdf;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.IntConsumer;
+
+/**
+ * Decides how the independent tasks of a job, such as the lines handled by {@link VDFPreprocessor}, are run: on the
+ * calling thread, on a {@link ForkJoinPool}, on any {@link Executor}, or on one of those depending on the size of the
+ * job. Jobs are split into chunks of consecutive tasks, each run by a single thread, so a chunk is worth handing to
+ * another thread and may share a buffer between its tasks.
+ * @author BucketOfBroccoli */
+public abstract class VDFExecution {
+
+    /** The default amount of tasks run together by a single thread. Preprocessing a line takes about 0.3 microseconds
+     * and handing a chunk to another thread about 1.5, so a chunk of this size spends under 1% of its time on that. */
+    public static final int DEFAULT_CHUNK_SIZE = 512;
+
+    /** The default amount of tasks below which {@link #automatic()} runs jobs on the calling thread: two chunks, the
+     * smallest job that can be split between threads. */
+    public static final int DEFAULT_THRESHOLD = 2 * DEFAULT_CHUNK_SIZE;
+
+    private static final VDFExecution SEQUENTIAL = new VDFExecution() {
+        @Override
+        public int chunkSize(int count) {
+            return Math.max(count, 1);
+        }
+
+        @Override
+        public void executeChunks(int count, ChunkTask task) {
+            if (count > 0) {
+                task.run(0, 0, count);
+            }
+        }
+    };
+
+    /**
+     * A chunk of consecutive tasks of a job.
+     */
+    public interface ChunkTask {
+        /**
+         * Runs the tasks of a chunk.
+         * @param chunk the index of the chunk
+         * @param from the index of the first task of the chunk
+         * @param to the index after the last task of the chunk
+         */
+        void run(int chunk, int from, int to);
+    }
+
+    /**
+     * Returns the amount of tasks per chunk a job would be split into. The last chunk may be smaller.
+     * @param count the amount of tasks of the job
+     * @return the amount of tasks per chunk, at least 1
+     */
+    public abstract int chunkSize(int count);
+
+    /**
+     * Runs a job in chunks of {@link #chunkSize(int)} tasks, returning once all of them have been run. Chunk i goes
+     * from task i * chunkSize to the next chunk, the chunks may run in any order and on any thread. An exception
+     * thrown by a chunk is rethrown by this method once the other chunks are done.
+     * @param count the amount of tasks
+     * @param task the task run with each chunk
+     */
+    public abstract void executeChunks(int count, ChunkTask task);
+
+    /**
+     * Runs a job, returning once all of its tasks have been run. The tasks may run in any order and on any thread.
+     * An exception thrown by a task is rethrown by this method once the other chunks are done.
+     * @param count the amount of tasks
+     * @param task the task to run with each index from 0 to count - 1
+     */
+    public void execute(int count, IntConsumer task) {
+        executeChunks(count, (chunk, from, to) -> {
+            for (int i = from; i < to; i++) {
+                task.accept(i);
+            }
+        });
+    }
+
+    /**
+     * @return a strategy that runs every task on the calling thread, in order, as a single chunk
+     */
+    public static VDFExecution sequential() {
+        return SEQUENTIAL;
+    }
+
+    /**
+     * @param pool the pool to run tasks on
+     * @return a strategy that runs tasks on a {@link ForkJoinPool}, in chunks of {@link #DEFAULT_CHUNK_SIZE} tasks
+     */
+    public static VDFExecution forkJoin(ForkJoinPool pool) {
+        return forkJoin(pool, DEFAULT_CHUNK_SIZE);
+    }
+
+    /**
+     * @param pool the pool to run tasks on
+     * @param chunkSize the amount of tasks run together by a single thread
+     * @return a strategy that runs tasks on a {@link ForkJoinPool}, splitting jobs in half until they're a single chunk
+     */
+    public static VDFExecution forkJoin(ForkJoinPool pool, int chunkSize) {
+        return new ForkJoinExecution(pool, checkChunkSize(chunkSize));
+    }
+
+    /**
+     * @param executor the executor to run tasks on
+     * @param chunkSize the amount of tasks run together by a single thread
+     * @return a strategy that submits a chunk of tasks at a time to an {@link Executor}, running the first chunk on the
+     * calling thread and waiting for the others
+     */
+    public static VDFExecution executor(Executor executor, int chunkSize) {
+        if (executor == null) throw new IllegalArgumentException("executor cannot be null.");
+        return new ExecutorExecution(executor, checkChunkSize(chunkSize));
+    }
+
+    /**
+     * Returns the default strategy of {@link VDFPreprocessor}, so it only applies to parsers created with one, such as
+     * {@code new VDFParser(new VDFPreprocessor())}. The default {@link VDFParser#VDFParser()} tokenizes documents in a
+     * single pass on the calling thread instead.
+     * @return a strategy that runs jobs smaller than {@link #DEFAULT_THRESHOLD} tasks on the calling thread, and larger
+     * ones on the common {@link ForkJoinPool} in chunks of {@link #DEFAULT_CHUNK_SIZE} tasks, or every job on the
+     * calling thread if there's a single processor, where running in parallel never pays off
+     */
+    public static VDFExecution automatic() {
+        if (Runtime.getRuntime().availableProcessors() < 2) {
+            return SEQUENTIAL;
+        }
+        return automatic(DEFAULT_THRESHOLD, forkJoin(ForkJoinPool.commonPool()));
+    }
+
+    /**
+     * @param threshold the amount of tasks below which jobs are run on the calling thread
+     * @param parallel the strategy larger jobs are run with
+     * @return a strategy choosing between running jobs on the calling thread or in parallel based on their size
+     */
+    public static VDFExecution automatic(int threshold, VDFExecution parallel) {
+        if (parallel == null) throw new IllegalArgumentException("parallel cannot be null.");
+        return new VDFExecution() {
+            @Override
+            public int chunkSize(int count) {
+                return (count < threshold ? SEQUENTIAL : parallel).chunkSize(count);
+            }
+
+            @Override
+            public void executeChunks(int count, ChunkTask task) {
+                (count < threshold ? SEQUENTIAL : parallel).executeChunks(count, task);
+            }
+        };
+    }
+
+    private static int checkChunkSize(int chunkSize) {
+        if (chunkSize < 1) throw new IllegalArgumentException("chunkSize must be positive: " + chunkSize);
+        return chunkSize;
+    }
+
+    private static final class ForkJoinExecution extends VDFExecution {
+        private final ForkJoinPool pool;
+        private final int chunkSize;
+
+        ForkJoinExecution(ForkJoinPool pool, int chunkSize) {
+            if (pool == null) throw new IllegalArgumentException("pool cannot be null.");
+            this.pool = pool;
+            this.chunkSize = chunkSize;
+        }
+
+        @Override
+        public int chunkSize(int count) {
+            return chunkSize;
+        }
+
+        @Override
+        public void executeChunks(int count, ChunkTask task) {
+            if (count <= chunkSize) {
+                if (count > 0) task.run(0, 0, count);
+                return;
+            }
+            pool.invoke(new Chunks(task, count, 0, (count + chunkSize - 1) / chunkSize));
+        }
+
+        /** Runs a range of chunks, splitting it in half until it's a single chunk. */
+        private final class Chunks extends RecursiveAction {
+            private final ChunkTask task;
+            private final int count, from, to;
+
+            Chunks(ChunkTask task, int count, int from, int to) {
+                this.task = task;
+                this.count = count;
+                this.from = from;
+                this.to = to;
+            }
+
+            @Override
+            protected void compute() {
+                if (to - from == 1) {
+                    int start = from * chunkSize;
+                    task.run(from, start, Math.min(start + chunkSize, count));
+                    return;
+                }
+                int middle = (from + to) >>> 1;
+                invokeAll(new Chunks(task, count, from, middle), new Chunks(task, count, middle, to));
+            }
+        }
+    }
+
+    private static final class ExecutorExecution extends VDFExecution {
+        private final Executor executor;
+        private final int chunkSize;
+
+        ExecutorExecution(Executor executor, int chunkSize) {
+            this.executor = executor;
+            this.chunkSize = chunkSize;
+        }
+
+        @Override
+        public int chunkSize(int count) {
+            return chunkSize;
+        }
+
+        @Override
+        public void executeChunks(int count, ChunkTask task) {
+            if (count <= chunkSize) {
+                if (count > 0) task.run(0, 0, count);
+                return;
+            }
+            int chunks = (count + chunkSize - 1) / chunkSize;
+            CountDownLatch latch = new CountDownLatch(chunks - 1);
+            AtomicReference<Throwable> failure = new AtomicReference<>();
+            for (int chunk = 1; chunk < chunks; chunk++) {
+                int index = chunk, from = chunk * chunkSize, to = Math.min(from + chunkSize, count);
+                Runnable runnable = () -> {
+                    try {
+                        task.run(index, from, to);
+                    }
+                    catch (Throwable t) {
+                        failure.compareAndSet(null, t);
+                    }
+                    finally {
+                        latch.countDown();
+                    }
+                };
+                try {
+                    executor.execute(runnable);
+                }
+                catch (RuntimeException e) {
+                    // Rejected, run the chunk here instead
+                    runnable.run();
+                }
+            }
+            try {
+                task.run(0, 0, chunkSize);
+            }
+            catch (Throwable t) {
+                failure.compareAndSet(null, t);
+            }
+            await(latch);
+
+            Throwable t = failure.get();
+            if (t instanceof RuntimeException) throw (RuntimeException) t;
+            if (t instanceof Error) throw (Error) t;
+        }
+
+        /** Waits for the other chunks, even if interrupted, since they're still writing into shared state. */
+        private static void await(CountDownLatch latch) {
+            boolean interrupted = false;
+            while (true) {
+                try {
+                    latch.await();
+                    break;
+                }
+                catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+}
@@ -0,0 +1,46 @@
+/*
+Copyright 2023 Arete
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package it.aretesoftware.gdx.jvdf;
+
+/**
+ * Receives the contents of a VDF document as they're parsed by {@link VDFParser#parse(String, VDFHandler)}, instead
+ * of a tree of {@link VDFNode}s. Only the nesting depth is kept in memory, so documents of any size can be filtered or
+ * aggregated, and a handler can build just the parts it needs.
+ * @author BucketOfBroccoli */
+public interface VDFHandler {
+
+    /**
+     * Called for every key/value pair.
+     * @param name the name of the pair
+     * @param value the value of the pair, only valid until this method returns: call {@link CharSequence#toString()}
+     * to keep it
+     */
+    void value(String name, CharSequence value);
+
+    /**
+     * Called when a subnode begins. The key/value pairs and subnodes that follow, up to the matching
+     * {@link #endSubNode()}, are its children.
+     * @param name the name of the subnode
+     */
+    void beginSubNode(String name);
+
+    /**
+     * Called when the subnode that began last ends.
+     */
+    void endSubNode();
+
+}
@@ -0,0 +1,58 @@
+/*
+Copyright 2023 Arete
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package it.aretesoftware.gdx.jvdf;
+
+/**
+ * Parser state that reports key/value pairs and subnodes to a {@link VDFHandler} instead of building nodes.
+ * @author BucketOfBroccoli */
+final class VDFHandlerState extends VDFParserState {
+
+    private final VDFHandler handler;
+
+    /** The amount of subnodes that began and haven't ended yet. */
+    private int depth;
+
+    VDFHandlerState(VDFHandler handler) {
+        this.handler = handler;
+    }
+
+    @Override
+    void addValue(String name) {
+        handler.value(name, string());
+    }
+
+    @Override
+    void pushSubNode(String name) {
+        depth++;
+        handler.beginSubNode(name);
+    }
+
+    @Override
+    void popSubNode() {
+        if (depth == 0) {
+            throw new VDFParseException("The root node was popped. There was a subnode mismatch (misplaced '}'?).");
+        }
+        depth--;
+        handler.endSubNode();
+    }
+
+    @Override
+    boolean atRoot() {
+        return depth == 0;
+    }
+
+}
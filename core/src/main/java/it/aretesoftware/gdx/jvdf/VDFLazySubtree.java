@@ -0,0 +1,303 @@
+/*
+Copyright 2023 Arete
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+
+package it.aretesoftware.gdx.jvdf;
+
+import java.util.Arrays;
+
+/**
+ * The deferred children of a {@link VDFNode} parsed by {@link VDFParser#parseLazy(String)}: the region of the
+ * document between the node's braces. The regions of every subnode, at any depth, are found by the brace-matching scan
+ * of the top level, which follows quotes and escapes but builds no nodes. A region is parsed the first time the node's
+ * children are accessed, one level at a time, jumping over the regions of its own subnodes, so reading the whole tree
+ * tokenizes every character twice at most, whatever its depth.
+ * @author BucketOfBroccoli */
+final class VDFLazySubtree {
+
+    private final Document document;
+    /** The index of this subtree's region in the document. */
+    private final int region;
+
+    private VDFLazySubtree(Document document, int region) {
+        this.document = document;
+        this.region = region;
+    }
+
+    /**
+     * Parses the top level of a VDF document, deferring the children of its subnodes.
+     * @param vdf the VDF document to parse
+     * @param sliceValues whether values are kept as slices of the document
+     * @param symbols the symbol table names are deduplicated through, may be null
+     * @param multiLine whether the document is tokenized in multi-line mode
+     * @return a VDFNode which represents the root of the VDF document
+     */
+    static VDFNode parse(String vdf, boolean sliceValues, VDFSymbolTable symbols, boolean multiLine) {
+        VDFNode root = new VDFNode();
+        Document document = new Document(vdf, sliceValues, symbols, multiLine);
+        LazyParserState state = new LazyParserState(root, root, document, 0, true);
+        state.tokenize(0, vdf.length());
+        return state.root();
+    }
+
+    /**
+     * Builds the children of a node, deferring the children of its own subnodes.
+     * @param node the node this region belongs to
+     */
+    void materialize(VDFNode node) {
+        Document document = this.document;
+        int start = document.starts[region];
+        LazyParserState state = new LazyParserState(new VDFNode(), node, document, start, false);
+        state.beginSubNode(node);
+        state.tokenizer.setLineQuoted(document.startQuoted[region]);
+        int position = start;
+        for (int nested = region + 1, next = document.nexts[region]; nested < next; nested = document.nexts[nested]) {
+            // Tokenize up to the opening brace of the subnode, then jump over its region
+            state.tokenizer.tokenize(document.source, position, document.starts[nested]);
+            state.skip(nested);
+            position = document.ends[nested] + 1;
+        }
+        // Include the closing brace, so the last key/value is committed exactly like an eager parse would
+        state.tokenize(position, document.ends[region] + 1);
+    }
+
+    /**
+     * A document parsed lazily, and the regions of all its subnodes in document order, so the regions nested in one
+     * directly follow it.
+     */
+    private static final class Document {
+        final String source;
+        /** Whether values are kept as slices of the source, see {@link VDFParser#setSliceValues(boolean)}. */
+        final boolean sliceValues;
+        /** The symbol table names are deduplicated through, may be null. It's the parse's own table rather than a
+         * copy, so names are shared between levels, which is why a lazy tree must be read from a single thread. */
+        final VDFSymbolTable symbols;
+        /** Whether the document is tokenized in multi-line mode, see {@link VDFTokenizer#setMultiLine(boolean)}. */
+        final boolean multiLine;
+        /** The scratch buffer shared by the tokenizers of every level, which are never used at the same time. */
+        final char[] buffer = new char[VDFTokenizer.BUFFER_SIZE];
+
+        /** The index after the opening brace of each region. */
+        int[] starts = new int[16];
+        /** The index of the closing brace of each region. */
+        int[] ends = new int[16];
+        /** The index of the region following each region and the regions nested in it, or of its enclosing region
+         * while it's still open. */
+        int[] nexts = new int[16];
+        /** Whether the line has unclosed quotes after the opening brace, and after the closing brace, of each region. */
+        boolean[] startQuoted = new boolean[16], endQuoted = new boolean[16];
+        int size;
+
+        Document(String source, boolean sliceValues, VDFSymbolTable symbols, boolean multiLine) {
+            this.source = source;
+            this.sliceValues = sliceValues;
+            this.symbols = symbols;
+            this.multiLine = multiLine;
+        }
+
+        /**
+         * Adds a region, still open.
+         * @param start the index after the opening brace
+         * @param lineQuoted whether the line has unclosed quotes after the opening brace
+         * @param enclosing the index of the enclosing open region, -1 for none
+         * @return the index of the region
+         */
+        int open(int start, boolean lineQuoted, int enclosing) {
+            if (size == starts.length) {
+                int length = size << 1;
+                starts = Arrays.copyOf(starts, length);
+                ends = Arrays.copyOf(ends, length);
+                nexts = Arrays.copyOf(nexts, length);
+                startQuoted = Arrays.copyOf(startQuoted, length);
+                endQuoted = Arrays.copyOf(endQuoted, length);
+            }
+            starts[size] = start;
+            startQuoted[size] = lineQuoted;
+            nexts[size] = enclosing;
+            return size++;
+        }
+
+        /**
+         * Closes a region, after the regions nested in it.
+         * @param region the index of the region
+         * @param end the index of the closing brace
+         * @param lineQuoted whether the line has unclosed quotes after the closing brace
+         * @return the index of the enclosing open region, -1 for none
+         */
+        int close(int region, int end, boolean lineQuoted) {
+            int enclosing = nexts[region];
+            ends[region] = end;
+            endQuoted[region] = lineQuoted;
+            nexts[region] = size;
+            return enclosing;
+        }
+    }
+
+    /**
+     * Parser state that builds the nodes of a single level, and skips over the contents of its subnodes.
+     */
+    private static final class LazyParserState extends VDFParserState {
+
+        private final VDFTokenizer tokenizer;
+        private final VDFNode level;
+        private final Document document;
+        private final int offset;
+        /** Whether the regions of the skipped subnodes are added to the document, which only the top level does. */
+        private final boolean scan;
+
+        /** The nesting depth inside the subnode being skipped, 0 when not skipping. */
+        private int depth = 0;
+        /** The index of the innermost open region, -1 for none. */
+        private int region = -1;
+        private boolean quoteState = false;
+        private boolean escapePending = false;
+
+        /**
+         * @param root the root node of the parser state
+         * @param level the node whose children are built, either the root or a node pushed onto the root
+         * @param document the document being parsed
+         * @param offset the index in the document of the first tokenized character
+         * @param scan whether the regions of the skipped subnodes are added to the document
+         */
+        LazyParserState(VDFNode root, VDFNode level, Document document, int offset, boolean scan) {
+            super(root);
+            this.tokenizer = new VDFTokenizer(this, document.buffer);
+            this.level = level;
+            this.document = document;
+            this.offset = offset;
+            this.scan = scan;
+            internSymbols(document.symbols);
+            tokenizer.setMultiLine(document.multiLine);
+            if (document.sliceValues) {
+                sliceValues(document.source, offset, tokenizer);
+            }
+        }
+
+        void tokenize(int start, int end) {
+            tokenizer.tokenize(document.source, start, end);
+            tokenizer.endTokenize();
+        }
+
+        /**
+         * Jumps over the region of the subnode whose opening brace was just tokenized, as if it had been skipped up to
+         * its closing brace.
+         * @param region the index of the subnode's region
+         */
+        void skip(int region) {
+            int length = document.ends[region] + 1 - document.starts[region];
+            tokenizer.skipSubNode(length, document.endQuoted[region]);
+            depth = 0;
+            current().lazy = new VDFLazySubtree(document, region);
+            super.endSubNode();
+        }
+
+        private int position() {
+            return offset + (int) tokenizer.position();
+        }
+
+        @Override
+        public void quote() {
+            if (depth == 0) {
+                super.quote();
+            }
+            else if (escapePending) {
+                escapePending = false;
+            }
+            else {
+                quoteState = !quoteState;
+            }
+        }
+
+        @Override
+        public void space() {
+            if (depth == 0) {
+                super.space();
+            }
+            else if (quoteState) {
+                escapePending = false;
+            }
+        }
+
+        @Override
+        public void escape() {
+            if (depth == 0) {
+                super.escape();
+            }
+            else {
+                escapePending = !escapePending;
+            }
+        }
+
+        @Override
+        public void character(char c) {
+            if (depth == 0) {
+                super.character(c);
+            }
+            else {
+                escapePending = false;
+            }
+        }
+
+        @Override
+        public void beginSubNode() {
+            if (depth == 0) {
+                VDFNode parent = current();
+                super.beginSubNode();
+                if (parent == level && current() != parent) {
+                    // A subnode of this level was just created, skip over its contents
+                    depth = 1;
+                    open();
+                }
+            }
+            else if (escapePending || quoteState) {
+                escapePending = false;
+            }
+            else {
+                depth++;
+                open();
+            }
+        }
+
+        @Override
+        public void endSubNode() {
+            if (depth == 0) {
+                super.endSubNode();
+            }
+            else if (escapePending || quoteState) {
+                escapePending = false;
+            }
+            else {
+                int closed = region;
+                if (scan) {
+                    region = document.close(closed, position(), tokenizer.isLineQuoted());
+                }
+                if (--depth == 0) {
+                    current().lazy = new VDFLazySubtree(document, closed);
+                    super.endSubNode();
+                }
+            }
+        }
+
+        /** Adds the region of a subnode whose opening brace was just tokenized, when scanning the top level. */
+        private void open() {
+            if (scan) {
+                region = document.open(position() + 1, tokenizer.isLineQuoted(), region);
+            }
+        }
+
+    }
+
+}
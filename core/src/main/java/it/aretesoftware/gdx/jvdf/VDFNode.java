@@ -20,15 +20,28 @@ import com.badlogic.gdx.graphics.Color;
 import com.badlogic.gdx.math.Vector2;
 import com.badlogic.gdx.math.Vector3;
 import com.badlogic.gdx.utils.Array;
-
+import com.badlogic.gdx.utils.BooleanArray;
+import com.badlogic.gdx.utils.ByteArray;
+import com.badlogic.gdx.utils.CharArray;
+import com.badlogic.gdx.utils.FloatArray;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+import com.badlogic.gdx.utils.IntArray;
+import com.badlogic.gdx.utils.LongArray;
+import com.badlogic.gdx.utils.ShortArray;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.Iterator;
 import java.util.NoSuchElementException;
 
 
 /** Container for a VDFNode.
  * <p>
- * VDFNode children are a linked list, therefore iteration is easily done using an iterator or the {@link #next()}
- * field, both shown below. This is much more efficient than accessing children by index when there are many children.<br>
+ * VDFNode children are a linked list, therefore iteration is easily done using an iterator or {@link #child()} and the
+ * {@link #next} field, both shown below. This is much more efficient than accessing children by index when there are
+ * many children.<br>
  * </p>
  *
  * <pre>
@@ -37,26 +50,49 @@ import java.util.NoSuchElementException;
  * for (VDFNode entry : map)
  * 	System.out.println(entry.name + " = " + entry.asString());
  * // No allocation:
- * for (VDFNode entry = map.child; entry != null; entry = entry.next)
+ * for (VDFNode entry = map.child(); entry != null; entry = entry.next)
  * 	System.out.println(entry.name + " = " + entry.asString());
  * </pre>
+ * The {@link #child} and {@link #size} fields are empty on nodes parsed by {@link VDFParser#parseLazy(String)} until
+ * their children are built, {@link #child()} and {@link #size()} build them first.
  *
  * @author Nathan Sweet
  * @author BucketOfBroccoli */
 public class VDFNode {
 
-    /** May be null. */
-    private String value;
+    /** The number of children past which lookups by name on a node with {@link #setIndexed(boolean)} build a hashed
+     * index of the children, so they no longer need to walk the linked list. */
+    static final int INDEX_THRESHOLD = 32;
+
+    /** May be null. Either a String or, for nodes parsed with {@link VDFParser#setSliceValues(boolean)}, a
+     * {@link VDFSlice} of the document that's replaced by a String the first time {@link #asString()} is called. */
+    private CharSequence value;
+    /** Memoized typed forms of {@link #value}. May be null, it's cleared by {@link #set(String)} and set up front by the
+     * setters of numbers, so they're never parsed back. */
+    private DecodedValue decoded;
 
+    /** When changing this field of a child of an indexed node, {@link #clearIndex()} may need to be called on its parent,
+     * see {@link #setIndexed(boolean)}. */
     public String name;
-    /** May be null. */
+    /** May be null. The children of a node parsed by {@link VDFParser#parseLazy(String)} are only built once accessed
+     * through {@link #child()}, a lookup or an iterator, until then this field is null and {@link #size} is 0. */
     public VDFNode child, parent;
     /** May be null. When changing this field the parent {@link #size()} may need to be changed. */
     public VDFNode next, prev;
     public int size;
+    /** The last child, used to add children in constant time. May be null or stale if the children were modified
+     * through the public fields. {@link #addChild(VDFNode)} only uses it while it's still a linked child with no next
+     * child, otherwise it walks the list from the first child to find the last one again. */
+    private VDFNode last;
+    /** Whether lookups by name may use {@link #index}. */
+    private boolean indexed;
+    /** Index of the children by name. May be null, it's built on demand by lookups by name. */
+    private VDFChildIndex index;
+    /** The children still to be built of a node parsed by {@link VDFParser#parseLazy(String)}. May be null. */
+    VDFLazySubtree lazy;
 
     public VDFNode() {
-        this(null);
+        this((String) null);
     }
 
     /** @param value May be null. */
@@ -64,13 +100,18 @@ public class VDFNode {
         this.value = value;
     }
 
+    /** @param value a region of the parsed document */
+    VDFNode(VDFSlice value) {
+        this.value = value;
+    }
+
 
     /** Returns the child at the specified index. This requires walking the linked list to the specified entry,
      * see {@link VDFNode} for how to iterate efficiently.
      * @param index of the child to return
      * @return the child node, may be null */
     public VDFNode get (int index) {
-        VDFNode current = child;
+        VDFNode current = child();
         while (current != null && index > 0) {
             index--;
             current = current.next;
@@ -93,7 +134,13 @@ public class VDFNode {
      * @param name of the child
      * @return the child node, may be null */
     public VDFNode get (String name) {
-        VDFNode current = child;
+        VDFChildIndex index = index(name);
+        if (index != null) {
+            VDFNode node = index.get(name, 0);
+            if (node == null || isChild(node, name)) return node;
+            this.index = null;
+        }
+        VDFNode current = child();
         while (current != null && (current.name == null || !current.name.equalsIgnoreCase(name)))
             current = current.next;
         return current;
@@ -114,7 +161,13 @@ public class VDFNode {
      * @param index of the child
      * @return the child node, may be null */
     public VDFNode get (String name, int index) {
-        VDFNode current = child;
+        VDFChildIndex childIndex = index >= 0 ? index(name) : null;
+        if (childIndex != null) {
+            VDFNode node = childIndex.get(name, index);
+            if (node == null || isChild(node, name)) return node;
+            this.index = null;
+        }
+        VDFNode current = child();
         while (current != null && index >= 0) {
             if (name.equalsIgnoreCase(current.name)) {
                 index--;
@@ -173,6 +226,8 @@ public class VDFNode {
             child.prev.next = child.next;
             if (child.next != null) child.next.prev = child.prev;
         }
+        if (last == child) last = child.prev;
+        if (this.index != null) this.index.remove(child);
         size--;
         return child;
     }
@@ -189,6 +244,8 @@ public class VDFNode {
             child.prev.next = child.next;
             if (child.next != null) child.next.prev = child.prev;
         }
+        if (last == child) last = child.prev;
+        if (this.index != null) this.index.remove(child);
         size--;
         return child;
     }
@@ -204,23 +261,28 @@ public class VDFNode {
             prev.next = next;
             if (next != null) next.prev = prev;
         }
+        if (parent.last == this) parent.last = prev;
+        if (parent.index != null) parent.index.remove(this);
         parent.size--;
     }
 
     /** @return true if this node has one or more children */
     public boolean notEmpty () {
+        materialize();
         return size > 0;
     }
 
     /** @return true if this node has no children */
     public boolean isEmpty () {
+        materialize();
         return size == 0;
     }
 
-    /** @deprecated Use {@link #size} instead
+    /** Unlike the {@link #size} field, this builds the children of a node parsed by {@link VDFParser#parseLazy(String)}
+     * first.
      * @return the number of children of this node.*/
-    @Deprecated
     public int size () {
+        materialize();
         return size;
     }
 
@@ -228,7 +290,9 @@ public class VDFNode {
      * @param name of the children to count
      * @return the number of children with the specified name */
     public int count(String name) {
-        VDFNode current = child;
+        VDFChildIndex index = index(name);
+        if (index != null) return index.count(name);
+        VDFNode current = child();
         int count = 0;
         while (current != null) {
             if (name.equalsIgnoreCase(current.name)) {
@@ -239,15 +303,79 @@ public class VDFNode {
         return count;
     }
 
+    /** Sets whether lookups by name build a hashed index of the children once this node has enough of them, so
+     * {@link #get(String)}, {@link #has(String)}, {@link #count(String)} and the getters by name no longer walk the
+     * linked list. The index is kept up to date by {@link #addChild(VDFNode)}, the remove methods and the put methods.
+     * A child found through the index is checked against its current name and parent, and the list is walked if either
+     * changed. Lookups of a name a child was given through the public fields, and counts, are only correct after
+     * {@link #clearIndex()}. Defaults to false.
+     * @param indexed whether lookups by name on this node may use an index */
+    public void setIndexed (boolean indexed) {
+        this.indexed = indexed;
+        if (!indexed) index = null;
+    }
+
+    /** Clears the index of the children by name, which is rebuilt by the next lookup by name. This must be called on an
+     * indexed node if the name of a child was changed, or if the children were modified through the public fields. */
+    public void clearIndex () {
+        index = null;
+    }
+
+    /** @return whether the specified node, found through the index, is still a child with the specified name */
+    private boolean isChild (VDFNode node, String name) {
+        return node.parent == this && name.equalsIgnoreCase(node.name);
+    }
+
+    /** @return the index of the children by name, or null if this node isn't indexed or doesn't have enough children to
+     * justify one */
+    private VDFChildIndex index (String name) {
+        materialize();
+        if (!indexed || name == null) return null;
+        if (size < INDEX_THRESHOLD) {
+            index = null;
+            return null;
+        }
+        if (index == null || index.size != size) {
+            index = new VDFChildIndex(this);
+        }
+        return index;
+    }
+
+    /** @return whether the specified node, the cached {@link #last} child, is still the last child linked to this node */
+    private boolean isLinkedLast (VDFNode node) {
+        return node != null && node.parent == this && node.next == null
+                && (node.prev == null ? child == node : node.prev.next == node);
+    }
+
+    /** Builds the children of a node parsed by {@link VDFParser#parseLazy(String)}, if they weren't already. */
+    private void materialize () {
+        VDFLazySubtree lazy = this.lazy;
+        if (lazy != null) {
+            this.lazy = null;
+            lazy.materialize(this);
+        }
+    }
+
+    /** @return this node's value as it is held, without copying a slice of the document into a String, may be null */
+    CharSequence rawValue () {
+        return value;
+    }
+
     /** @return this node's value as a String, may be null. */
     public String asString () {
-        return value;
+        CharSequence value = this.value;
+        if (value instanceof VDFSlice) {
+            String string = value.toString();
+            this.value = string;
+            return string;
+        }
+        return (String) value;
     }
 
     /**
      * @param defaultValue to return if this node's value is null */
     public String asString (String defaultValue) {
-        return !isNull() ? value : defaultValue;
+        return !isNull() ? asString() : defaultValue;
     }
 
     /** @return this node's value as a float.
@@ -256,7 +384,13 @@ public class VDFNode {
         if (isNull()) {
             throw new IllegalStateException("Value is null.");
         }
-        return Float.parseFloat(value);
+        DecodedValue decoded = this.decoded;
+        if (decoded == null || (decoded.flags & DecodedValue.FLOAT) == 0) {
+            this.decoded = decoded = DecodedValue.withFloat(decoded, value instanceof String
+                    ? Float.parseFloat((String) value)
+                    : VDFUtils.toFloat(value));
+        }
+        return decoded.floatValue;
     }
 
     /**
@@ -276,7 +410,11 @@ public class VDFNode {
         if (isNull()) {
             throw new IllegalStateException("Value is null.");
         }
-        return Double.parseDouble(value);
+        DecodedValue decoded = this.decoded;
+        if (decoded == null || (decoded.flags & DecodedValue.DOUBLE) == 0) {
+            this.decoded = decoded = DecodedValue.withDouble(decoded, Double.parseDouble(asString()));
+        }
+        return decoded.doubleValue;
     }
 
     /**
@@ -296,7 +434,13 @@ public class VDFNode {
         if (isNull()) {
             throw new IllegalStateException("Value is null.");
         }
-        return Long.parseLong(value);
+        DecodedValue decoded = this.decoded;
+        if (decoded == null || (decoded.flags & DecodedValue.LONG) == 0) {
+            this.decoded = decoded = DecodedValue.withLong(decoded, value instanceof String
+                    ? Long.parseLong((String) value)
+                    : VDFUtils.toLong(value));
+        }
+        return decoded.longValue;
     }
 
     /**
@@ -313,10 +457,7 @@ public class VDFNode {
     /** @return this node's value as an int
      * @throws IllegalStateException if value is null */
     public int asInt () {
-        if (isNull()) {
-            throw new IllegalStateException("Value is null.");
-        }
-        return Integer.parseInt(value);
+        return (int) asLong(Integer.MIN_VALUE, Integer.MAX_VALUE);
     }
 
     /**
@@ -336,7 +477,10 @@ public class VDFNode {
         if (isNull()) {
             throw new IllegalStateException("Value is null.");
         }
-        return Boolean.parseBoolean(value);
+        CharSequence value = this.value;
+        return value instanceof VDFSlice
+                ? ((VDFSlice) value).equalsIgnoreCase("true")
+                : Boolean.parseBoolean((String) value);
     }
 
     /**
@@ -353,10 +497,7 @@ public class VDFNode {
     /** @return this node's value as a byte
      * @throws IllegalStateException if value is null */
     public byte asByte () {
-        if (isNull()) {
-            throw new IllegalStateException("Value is null.");
-        }
-        return Byte.parseByte(value);
+        return (byte) asLong(Byte.MIN_VALUE, Byte.MAX_VALUE);
     }
 
     /**
@@ -373,10 +514,7 @@ public class VDFNode {
     /** @return this node's value as a short
      * @throws IllegalStateException if value is null */
     public short asShort () {
-        if (isNull()) {
-            throw new IllegalStateException("Value is null.");
-        }
-        return Short.parseShort(value);
+        return (short) asLong(Short.MIN_VALUE, Short.MAX_VALUE);
     }
 
     /**
@@ -390,6 +528,17 @@ public class VDFNode {
         }
     }
 
+    /** @return this node's value as a long, which must be within the specified range
+     * @throws IllegalStateException if value is null
+     * @throws NumberFormatException if value is not a number or is out of range */
+    private long asLong (long min, long max) {
+        long value = asLong();
+        if (value < min || value > max) {
+            throw new NumberFormatException("Value out of range. Value:\"" + this.value + "\"");
+        }
+        return value;
+    }
+
     /**
      * @param defaultValue to return if this node's value is null */
     public char asShort(char defaultValue) {
@@ -435,7 +584,13 @@ public class VDFNode {
         if (isNull()) {
             throw new IllegalStateException("Value is null.");
         }
-        return VDFUtils.toColor(asString());
+        float[] components = components(4);
+        if (components == null) {
+            Color color = VDFUtils.toColor(asString());
+            this.decoded = DecodedValue.withComponents(decoded, new float[] {color.r, color.g, color.b, color.a});
+            return color;
+        }
+        return new Color(components[0], components[1], components[2], components[3]);
     }
 
     /**
@@ -449,13 +604,36 @@ public class VDFNode {
         }
     }
 
+    /** Reads this node's value into an existing {@link Color}, without allocating once the value was decoded.
+     * @param out the {@link Color} to set
+     * @return out, for chaining
+     * @throws IllegalStateException if value is null */
+    public Color readColor (Color out) {
+        if (isNull()) {
+            throw new IllegalStateException("Value is null.");
+        }
+        float[] components = components(4);
+        if (components == null) {
+            VDFUtils.parseColor(asString(), out);
+            this.decoded = DecodedValue.withComponents(decoded, new float[] {out.r, out.g, out.b, out.a});
+            return out;
+        }
+        return out.set(components[0], components[1], components[2], components[3]);
+    }
+
     /** @return this node's value as a {@link Vector3}
      * @throws IllegalStateException if value is null */
     public Vector3 asVector3 () {
         if (isNull()) {
             throw new IllegalStateException("Value is null.");
         }
-        return VDFUtils.toVector3(asString());
+        float[] components = components(3);
+        if (components == null) {
+            Vector3 vec3 = VDFUtils.toVector3(asString());
+            this.decoded = DecodedValue.withComponents(decoded, new float[] {vec3.x, vec3.y, vec3.z});
+            return vec3;
+        }
+        return new Vector3(components[0], components[1], components[2]);
     }
 
     /**
@@ -469,13 +647,36 @@ public class VDFNode {
         }
     }
 
+    /** Reads this node's value into an existing {@link Vector3}, without allocating once the value was decoded.
+     * @param out the {@link Vector3} to set
+     * @return out, for chaining
+     * @throws IllegalStateException if value is null */
+    public Vector3 readVector3 (Vector3 out) {
+        if (isNull()) {
+            throw new IllegalStateException("Value is null.");
+        }
+        float[] components = components(3);
+        if (components == null) {
+            VDFUtils.parseVector3(asString(), out);
+            this.decoded = DecodedValue.withComponents(decoded, new float[] {out.x, out.y, out.z});
+            return out;
+        }
+        return out.set(components[0], components[1], components[2]);
+    }
+
     /** @return this node's value as a {@link Vector2}
      * @throws IllegalStateException if value is null */
     public Vector2 asVector2 () {
         if (isNull()) {
             throw new IllegalStateException("Value is null.");
         }
-        return VDFUtils.toVector2(asString());
+        float[] components = components(2);
+        if (components == null) {
+            Vector2 vec2 = VDFUtils.toVector2(asString());
+            this.decoded = DecodedValue.withComponents(decoded, new float[] {vec2.x, vec2.y});
+            return vec2;
+        }
+        return new Vector2(components[0], components[1]);
     }
 
     /**
@@ -489,6 +690,30 @@ public class VDFNode {
         }
     }
 
+    /** Reads this node's value into an existing {@link Vector2}, without allocating once the value was decoded.
+     * @param out the {@link Vector2} to set
+     * @return out, for chaining
+     * @throws IllegalStateException if value is null */
+    public Vector2 readVector2 (Vector2 out) {
+        if (isNull()) {
+            throw new IllegalStateException("Value is null.");
+        }
+        float[] components = components(2);
+        if (components == null) {
+            VDFUtils.parseVector2(asString(), out);
+            this.decoded = DecodedValue.withComponents(decoded, new float[] {out.x, out.y});
+            return out;
+        }
+        return out.set(components[0], components[1]);
+    }
+
+    /** @return the memoized components of this node's value, or null if they were not decoded with the specified count yet */
+    private float[] components (int count) {
+        DecodedValue decoded = this.decoded;
+        if (decoded == null || decoded.components == null || decoded.components.length != count) return null;
+        return decoded.components;
+    }
+
     /**
      * @return this node's value as an Enum
      * @throws IllegalStateException if value is null */
@@ -519,7 +744,7 @@ public class VDFNode {
     public Array<VDFNode> asArray(String name) {
         Array<VDFNode> list = new Array<>();
         int i = 0;
-        for (VDFNode value = child; value != null; value = value.next, i++) {
+        for (VDFNode value = child(); value != null; value = value.next, i++) {
             if (name.equals(value.name)) {
                 list.add(value);
             }
@@ -533,9 +758,9 @@ public class VDFNode {
     public Array<String> asStringArray (String name) {
        Array<String> list = new Array<>();
         int i = 0;
-        for (VDFNode value = child; value != null; value = value.next, i++) {
+        for (VDFNode value = child(); value != null; value = value.next, i++) {
             if (name.equals(value.name)) {
-                list.add(value.value);
+                list.add(value.asString());
             }
         }
         return list;
@@ -548,7 +773,7 @@ public class VDFNode {
     public Array<Float> asFloatArray (String name) {
         Array<Float> list = new Array<>();
         int i = 0;
-        for (VDFNode value = child; value != null; value = value.next, i++) {
+        for (VDFNode value = child(); value != null; value = value.next, i++) {
             if (name.equals(value.name)) {
                 list.add(value.asFloat());
             }
@@ -556,6 +781,21 @@ public class VDFNode {
         return list;
     }
 
+    /** Reads the values of children nodes into an existing {@link FloatArray}, without boxing them.
+     * @param name of the children nodes
+     * @param out the {@link FloatArray} to fill, cleared first
+     * @return out, for chaining
+     * @throws IllegalStateException if any of the values are null */
+    public FloatArray readFloatArray (String name, FloatArray out) {
+        out.clear();
+        for (VDFNode value = child(); value != null; value = value.next) {
+            if (name.equals(value.name)) {
+                out.add(value.asFloat());
+            }
+        }
+        return out;
+    }
+
     /** Returns the values of children nodes as a newly allocated double {@link Array}.
      * @param name of the children nodes
      * @return double {@link Array} filled with said nodes' values
@@ -563,7 +803,7 @@ public class VDFNode {
     public Array<Double> asDoubleArray (String name) {
         Array<Double> list = new Array<>();
         int i = 0;
-        for (VDFNode value = child; value != null; value = value.next, i++) {
+        for (VDFNode value = child(); value != null; value = value.next, i++) {
             if (name.equals(value.name)) {
                 list.add(value.asDouble());
             }
@@ -578,7 +818,7 @@ public class VDFNode {
     public Array<Long> asLongArray (String name) {
         Array<Long> list = new Array<>();
         int i = 0;
-        for (VDFNode value = child; value != null; value = value.next, i++) {
+        for (VDFNode value = child(); value != null; value = value.next, i++) {
             if (name.equals(value.name)) {
                 list.add(value.asLong());
             }
@@ -586,6 +826,21 @@ public class VDFNode {
         return list;
     }
 
+    /** Reads the values of children nodes into an existing {@link LongArray}, without boxing them.
+     * @param name of the children nodes
+     * @param out the {@link LongArray} to fill, cleared first
+     * @return out, for chaining
+     * @throws IllegalStateException if any of the values are null */
+    public LongArray readLongArray (String name, LongArray out) {
+        out.clear();
+        for (VDFNode value = child(); value != null; value = value.next) {
+            if (name.equals(value.name)) {
+                out.add(value.asLong());
+            }
+        }
+        return out;
+    }
+
     /** Returns the values of children nodes as a newly allocated int {@link Array}.
      * @param name of the children nodes
      * @return int {@link Array} filled with said nodes' values
@@ -593,7 +848,7 @@ public class VDFNode {
     public Array<Integer> asIntArray (String name) {
         Array<Integer> list = new Array<>();
         int i = 0;
-        for (VDFNode value = child; value != null; value = value.next, i++) {
+        for (VDFNode value = child(); value != null; value = value.next, i++) {
             if (name.equals(value.name)) {
                 list.add(value.asInt());
             }
@@ -601,6 +856,21 @@ public class VDFNode {
         return list;
     }
 
+    /** Reads the values of children nodes into an existing {@link IntArray}, without boxing them.
+     * @param name of the children nodes
+     * @param out the {@link IntArray} to fill, cleared first
+     * @return out, for chaining
+     * @throws IllegalStateException if any of the values are null */
+    public IntArray readIntArray (String name, IntArray out) {
+        out.clear();
+        for (VDFNode value = child(); value != null; value = value.next) {
+            if (name.equals(value.name)) {
+                out.add(value.asInt());
+            }
+        }
+        return out;
+    }
+
     /** Returns the values of children nodes as a newly allocated boolean {@link Array}.
      * @param name of the children nodes
      * @return boolean {@link Array} filled with said nodes' values
@@ -608,7 +878,7 @@ public class VDFNode {
     public Array<Boolean> asBooleanArray (String name) {
         Array<Boolean> list = new Array<>();
         int i = 0;
-        for (VDFNode value = child; value != null; value = value.next, i++) {
+        for (VDFNode value = child(); value != null; value = value.next, i++) {
             if (name.equals(value.name)) {
                 list.add(value.asBoolean());
             }
@@ -616,6 +886,21 @@ public class VDFNode {
         return list;
     }
 
+    /** Reads the values of children nodes into an existing {@link BooleanArray}, without boxing them.
+     * @param name of the children nodes
+     * @param out the {@link BooleanArray} to fill, cleared first
+     * @return out, for chaining
+     * @throws IllegalStateException if any of the values are null */
+    public BooleanArray readBooleanArray (String name, BooleanArray out) {
+        out.clear();
+        for (VDFNode value = child(); value != null; value = value.next) {
+            if (name.equals(value.name)) {
+                out.add(value.asBoolean());
+            }
+        }
+        return out;
+    }
+
     /** Returns the values of children nodes as a newly allocated byte {@link Array}.
      * @param name of the children nodes
      * @return byte {@link Array} filled with said nodes' values
@@ -623,7 +908,7 @@ public class VDFNode {
     public Array<Byte> asByteArray (String name) {
         Array<Byte> list = new Array<>();
         int i = 0;
-        for (VDFNode value = child; value != null; value = value.next, i++) {
+        for (VDFNode value = child(); value != null; value = value.next, i++) {
             if (name.equals(value.name)) {
                 list.add(value.asByte());
             }
@@ -631,6 +916,21 @@ public class VDFNode {
         return list;
     }
 
+    /** Reads the values of children nodes into an existing {@link ByteArray}, without boxing them.
+     * @param name of the children nodes
+     * @param out the {@link ByteArray} to fill, cleared first
+     * @return out, for chaining
+     * @throws IllegalStateException if any of the values are null */
+    public ByteArray readByteArray (String name, ByteArray out) {
+        out.clear();
+        for (VDFNode value = child(); value != null; value = value.next) {
+            if (name.equals(value.name)) {
+                out.add(value.asByte());
+            }
+        }
+        return out;
+    }
+
     /** Returns the values of children nodes as a newly allocated short {@link Array}.
      * @param name of the children nodes
      * @return short {@link Array} filled with said nodes' values
@@ -638,7 +938,7 @@ public class VDFNode {
     public Array<Short> asShortArray (String name) {
         Array<Short> list = new Array<>();
         int i = 0;
-        for (VDFNode value = child; value != null; value = value.next, i++) {
+        for (VDFNode value = child(); value != null; value = value.next, i++) {
             if (name.equals(value.name)) {
                 list.add(value.asShort());
             }
@@ -646,6 +946,21 @@ public class VDFNode {
         return list;
     }
 
+    /** Reads the values of children nodes into an existing {@link ShortArray}, without boxing them.
+     * @param name of the children nodes
+     * @param out the {@link ShortArray} to fill, cleared first
+     * @return out, for chaining
+     * @throws IllegalStateException if any of the values are null */
+    public ShortArray readShortArray (String name, ShortArray out) {
+        out.clear();
+        for (VDFNode value = child(); value != null; value = value.next) {
+            if (name.equals(value.name)) {
+                out.add(value.asShort());
+            }
+        }
+        return out;
+    }
+
     /** Returns the values of children nodes as a newly allocated char {@link Array}.
      * @param name of the children nodes
      * @return char {@link Array} filled with said nodes' values
@@ -653,7 +968,7 @@ public class VDFNode {
     public Array<Character> asCharArray (String name) {
         Array<Character> list = new Array<>();
         int i = 0;
-        for (VDFNode value = child; value != null; value = value.next, i++) {
+        for (VDFNode value = child(); value != null; value = value.next, i++) {
             if (name.equals(value.name)) {
                 list.add(value.asChar());
             }
@@ -661,6 +976,21 @@ public class VDFNode {
         return list;
     }
 
+    /** Reads the values of children nodes into an existing {@link CharArray}, without boxing them.
+     * @param name of the children nodes
+     * @param out the {@link CharArray} to fill, cleared first
+     * @return out, for chaining
+     * @throws IllegalStateException if any of the values are null */
+    public CharArray readCharArray (String name, CharArray out) {
+        out.clear();
+        for (VDFNode value = child(); value != null; value = value.next) {
+            if (name.equals(value.name)) {
+                out.add(value.asChar());
+            }
+        }
+        return out;
+    }
+
     /** Returns the values of children nodes as a newly allocated {@link Color} {@link Array}.
      * @param name of the children nodes
      * @return {@link Color} {@link Array} filled with said nodes' values
@@ -668,7 +998,7 @@ public class VDFNode {
     public Array<Color> asColorArray (String name) {
         Array<Color> list = new Array<>();
         int i = 0;
-        for (VDFNode value = child; value != null; value = value.next, i++) {
+        for (VDFNode value = child(); value != null; value = value.next, i++) {
             if (name.equals(value.name)) {
                 list.add(value.asColor());
             }
@@ -676,6 +1006,29 @@ public class VDFNode {
         return list;
     }
 
+    /** Reads the values of children nodes into an existing {@link Color} {@link Array}. The {@link Color} instances
+     * already in the array are reused, new ones are only allocated if the array is too small.
+     * @param name of the children nodes
+     * @param out the {@link Color} {@link Array} to fill, truncated to the number of values
+     * @return out, for chaining
+     * @throws IllegalStateException if any of the values are null */
+    public Array<Color> readColorArray (String name, Array<Color> out) {
+        int i = 0;
+        for (VDFNode value = child(); value != null; value = value.next) {
+            if (name.equals(value.name)) {
+                if (i < out.size) {
+                    value.readColor(out.get(i));
+                }
+                else {
+                    out.add(value.readColor(new Color()));
+                }
+                i++;
+            }
+        }
+        out.truncate(i);
+        return out;
+    }
+
     /** Returns the values of children nodes as a newly allocated {@link Vector3} {@link Array}.
      * @param name of the children nodes
      * @return {@link Vector3} {@link Array} filled with said nodes' values
@@ -683,7 +1036,7 @@ public class VDFNode {
     public Array<Vector3> asVector3Array (String name) {
         Array<Vector3> list = new Array<>();
         int i = 0;
-        for (VDFNode value = child; value != null; value = value.next, i++) {
+        for (VDFNode value = child(); value != null; value = value.next, i++) {
             if (name.equals(value.name)) {
                 list.add(value.asVector3());
             }
@@ -691,6 +1044,29 @@ public class VDFNode {
         return list;
     }
 
+    /** Reads the values of children nodes into an existing {@link Vector3} {@link Array}. The {@link Vector3} instances
+     * already in the array are reused, new ones are only allocated if the array is too small.
+     * @param name of the children nodes
+     * @param out the {@link Vector3} {@link Array} to fill, truncated to the number of values
+     * @return out, for chaining
+     * @throws IllegalStateException if any of the values are null */
+    public Array<Vector3> readVector3Array (String name, Array<Vector3> out) {
+        int i = 0;
+        for (VDFNode value = child(); value != null; value = value.next) {
+            if (name.equals(value.name)) {
+                if (i < out.size) {
+                    value.readVector3(out.get(i));
+                }
+                else {
+                    out.add(value.readVector3(new Vector3()));
+                }
+                i++;
+            }
+        }
+        out.truncate(i);
+        return out;
+    }
+
     /** Returns the values of children nodes as a newly allocated {@link Vector2} {@link Array}.
      * @param name of the children nodes
      * @return {@link Vector2} {@link Array} filled with said nodes' values
@@ -698,7 +1074,7 @@ public class VDFNode {
     public Array<Vector2> asVector2Array (String name) {
         Array<Vector2> list = new Array<>();
         int i = 0;
-        for (VDFNode value = child; value != null; value = value.next, i++) {
+        for (VDFNode value = child(); value != null; value = value.next, i++) {
             if (name.equals(value.name)) {
                 list.add(value.asVector2());
             }
@@ -706,6 +1082,29 @@ public class VDFNode {
         return list;
     }
 
+    /** Reads the values of children nodes into an existing {@link Vector2} {@link Array}. The {@link Vector2} instances
+     * already in the array are reused, new ones are only allocated if the array is too small.
+     * @param name of the children nodes
+     * @param out the {@link Vector2} {@link Array} to fill, truncated to the number of values
+     * @return out, for chaining
+     * @throws IllegalStateException if any of the values are null */
+    public Array<Vector2> readVector2Array (String name, Array<Vector2> out) {
+        int i = 0;
+        for (VDFNode value = child(); value != null; value = value.next) {
+            if (name.equals(value.name)) {
+                if (i < out.size) {
+                    value.readVector2(out.get(i));
+                }
+                else {
+                    out.add(value.readVector2(new Vector2()));
+                }
+                i++;
+            }
+        }
+        out.truncate(i);
+        return out;
+    }
+
     /** Returns the values of children nodes as a newly allocated Enum {@link Array}.
      * @param name of the children nodes
      * @param enumClass of the Enum the values represent
@@ -714,7 +1113,7 @@ public class VDFNode {
     public <T extends Enum<T>> Array<T> asEnumArray (String name, Class<T> enumClass) {
         Array<T> list = new Array<>();
         int i = 0;
-        for (VDFNode value = child; value != null; value = value.next, i++) {
+        for (VDFNode value = child(); value != null; value = value.next, i++) {
             if (name.equals(value.name)) {
                 list.add(value.asEnum(enumClass));
             }
@@ -731,7 +1130,7 @@ public class VDFNode {
      * @return the node, may be null */
     public VDFNode getChild (String name) {
         VDFNode child = get(name);
-        return child == null ? null : child.child;
+        return child == null ? null : child.child();
     }
 
     /** Finds the child node with the specified name and returns its value as a String.
@@ -951,6 +1350,17 @@ public class VDFNode {
         return child.asColor();
     }
 
+    /** Finds the child node with the specified name and reads its value into an existing {@link Color}.
+     * @param name of the child
+     * @param out the {@link Color} to set
+     * @return out, for chaining
+     * @throws IllegalArgumentException if the child was not found */
+    public Color readColor (String name, Color out) {
+        VDFNode child = get(name);
+        if (child == null) throw new IllegalArgumentException("Named value not found: " + name);
+        return child.readColor(out);
+    }
+
     /** Finds the child node with the specified name and returns its value as a {@link Vector3}.
      * @param name of the child
      * @return the child's value as a {@link Vector3}
@@ -961,6 +1371,17 @@ public class VDFNode {
         return child.asVector3();
     }
 
+    /** Finds the child node with the specified name and reads its value into an existing {@link Vector3}.
+     * @param name of the child
+     * @param out the {@link Vector3} to set
+     * @return out, for chaining
+     * @throws IllegalArgumentException if the child was not found */
+    public Vector3 readVector3 (String name, Vector3 out) {
+        VDFNode child = get(name);
+        if (child == null) throw new IllegalArgumentException("Named value not found: " + name);
+        return child.readVector3(out);
+    }
+
     /** Finds the child node with the specified name and returns its value as a {@link Vector2}.
      * @param name of the child
      * @return the child's value as a {@link Vector2}
@@ -971,6 +1392,17 @@ public class VDFNode {
         return child.asVector2();
     }
 
+    /** Finds the child node with the specified name and reads its value into an existing {@link Vector2}.
+     * @param name of the child
+     * @param out the {@link Vector2} to set
+     * @return out, for chaining
+     * @throws IllegalArgumentException if the child was not found */
+    public Vector2 readVector2 (String name, Vector2 out) {
+        VDFNode child = get(name);
+        if (child == null) throw new IllegalArgumentException("Named value not found: " + name);
+        return child.readVector2(out);
+    }
+
     /** Finds the child node with the specified name and returns its value as an Enum.
      * @param name of the child
      * @param enumClass of the child's value
@@ -1128,6 +1560,7 @@ public class VDFNode {
     /**
      * @return this node's first child, may be null */
     public VDFNode child () {
+        materialize();
         return child;
     }
 
@@ -1166,9 +1599,12 @@ public class VDFNode {
      * @throws IllegalStateException if the node's name is null */
     public void addChild (VDFNode node) {
         if (node.name == null) throw new IllegalStateException("An object child requires a name: " + node);
+        materialize();
         node.parent = this;
         size++;
-        VDFNode current = child;
+        if (index != null) index.add(node);
+        VDFNode current = child != null && isLinkedLast(last) ? last : child;
+        last = node;
         if (current == null)
             child = node;
         else {
@@ -1210,62 +1646,66 @@ public class VDFNode {
      * @param value to set, may be null */
     public void set (String value) {
         this.value = value;
+        this.decoded = null;
     }
 
     /**
-     * Sets this node's value from a float.
+     * Sets this node's value from a float, written with as few digits as it takes to be read back as the same float.
      * @param value to set */
     public void set (float value) {
-        set(String.valueOf(value));
+        set(VDFUtils.appendFloat(new StringBuilder(16), value).toString());
+        this.decoded = DecodedValue.withFloat(null, value);
     }
 
     /**
      * Sets this node's value from a double.
      * @param value to set */
     public void set (double value) {
-        set(String.valueOf(value));
+        set(new StringBuilder(24).append(value).toString());
+        this.decoded = DecodedValue.withDouble(null, value);
     }
 
     /**
      * Sets this node's value from a long.
      * @param value to set */
     public void set (long value) {
-        set(String.valueOf(value));
+        set(new StringBuilder(20).append(value).toString());
+        this.decoded = DecodedValue.withLong(null, value);
     }
 
     /**
      * Sets this node's value from a int.
      * @param value to set */
     public void set (int value) {
-        set(String.valueOf(value));
+        set((long) value);
     }
 
     /**
      * Sets this node's value from a boolean.
      * @param value to set */
     public void set (boolean value) {
-        set(String.valueOf(value));
+        set(value ? "true" : "false");
     }
 
     /**
      * Sets this node's value from a byte.
      * @param value to set */
     public void set (byte value) {
-        set(String.valueOf(value));
+        set((long) value);
     }
 
     /**
      * Sets this node's value from a short.
      * @param value to set */
     public void set (short value) {
-        set(String.valueOf(value));
+        set((long) value);
     }
 
     /**
      * Sets this node's value from a char.
      * @param value to set */
     public void set (char value) {
-        set(String.valueOf(value));
+        set(Character.toString(value));
     }
 
     /**
@@ -1314,10 +1754,14 @@ public class VDFNode {
             if (child == current) {
                 child = value;
             }
+            if (last == current) {
+                last = value;
+            }
             value.name = name;
             value.prev = current.prev;
             value.next = current.next;
             value.parent = current.parent;
+            if (index != null) index.replace(current, value);
             current.child = null;
             current.parent = null;
             current.prev = null;
@@ -1355,7 +1799,9 @@ public class VDFNode {
      * @param value of the node to modify or create
      * @return the modified node */
     public VDFNode put (String name, float value) {
-        return put(name, String.valueOf(value));
+        VDFNode node = getOrAdd(name);
+        node.set(value);
+        return node;
     }
 
     /**
@@ -1365,7 +1811,9 @@ public class VDFNode {
      * @param value of the node to modify or create
      * @return the modified node */
     public VDFNode put (String name, double value) {
-        return put(name, String.valueOf(value));
+        VDFNode node = getOrAdd(name);
+        node.set(value);
+        return node;
     }
 
     /**
@@ -1375,7 +1823,9 @@ public class VDFNode {
      * @param value of the node to modify or create
      * @return the modified node */
     public VDFNode put (String name, long value) {
-        return put(name, String.valueOf(value));
+        VDFNode node = getOrAdd(name);
+        node.set(value);
+        return node;
     }
 
     /**
@@ -1385,7 +1835,9 @@ public class VDFNode {
      * @param value of the node to modify or create
      * @return the modified node */
     public VDFNode put (String name, int value) {
-        return put(name, String.valueOf(value));
+        VDFNode node = getOrAdd(name);
+        node.set(value);
+        return node;
     }
 
     /**
@@ -1395,7 +1847,9 @@ public class VDFNode {
      * @param value of the node to modify or create
      * @return the modified node */
     public VDFNode put (String name, boolean value) {
-        return put(name, String.valueOf(value));
+        VDFNode node = getOrAdd(name);
+        node.set(value);
+        return node;
     }
 
     /**
@@ -1405,7 +1859,9 @@ public class VDFNode {
      * @param value of the node to modify or create
      * @return the modified node */
     public VDFNode put (String name, byte value) {
-        return put(name, String.valueOf(value));
+        VDFNode node = getOrAdd(name);
+        node.set(value);
+        return node;
     }
 
     /**
@@ -1415,7 +1871,9 @@ public class VDFNode {
      * @param value of the node to modify or create
      * @return the modified node */
     public VDFNode put (String name, short value) {
-        return put(name, String.valueOf(value));
+        VDFNode node = getOrAdd(name);
+        node.set(value);
+        return node;
     }
 
     /**
@@ -1425,7 +1883,9 @@ public class VDFNode {
      * @param value of the node to modify or create
      * @return the modified node */
     public VDFNode put (String name, char value) {
-        return put(name, String.valueOf(value));
+        VDFNode node = getOrAdd(name);
+        node.set(value);
+        return node;
     }
 
     /**
@@ -1435,7 +1895,9 @@ public class VDFNode {
      * @param value of the node to modify or create
      * @return the modified node */
     public VDFNode put (String name, Color value) {
-        return put(name, VDFUtils.toColorString(value));
+        VDFNode node = getOrAdd(name);
+        node.set(value);
+        return node;
     }
 
     /**
@@ -1445,7 +1907,9 @@ public class VDFNode {
      * @param value of the node to modify or create
      * @return the modified node */
     public VDFNode put (String name, Vector3 value) {
-        return put(name, VDFUtils.toVector3String(value));
+        VDFNode node = getOrAdd(name);
+        node.set(value);
+        return node;
     }
 
     /**
@@ -1455,7 +1919,9 @@ public class VDFNode {
      * @param value of the node to modify or create
      * @return the modified node */
     public VDFNode put (String name, Vector2 value) {
-        return put(name, VDFUtils.toVector2String(value));
+        VDFNode node = getOrAdd(name);
+        node.set(value);
+        return node;
     }
 
     /**
@@ -1468,6 +1934,20 @@ public class VDFNode {
         return put(name, value.name());
     }
 
+    /**
+     * Finds the node with the specified name, or creates one with a null value and adds it after the last child, for
+     * the put methods to set through the typed setter.
+     * @param name of the node to find or create
+     * @return the node */
+    private VDFNode getOrAdd (String name) {
+        VDFNode node = get(name);
+        if (node == null) {
+            node = new VDFNode();
+            addChild(name, node);
+        }
+        return node;
+    }
+
 
     /**
      * Iterates the children of this node. */
@@ -1485,57 +1965,196 @@ public class VDFNode {
      * <br>
      * Note that the string does <b>not</b> include this node's {@link #prev} and {@link #next} nodes. */
     public String toVDFString() {
-        return toVDFString(this, this, new StringBuilder(), new StringBuilder());
+        return toVDFString(new StringBuilder()).toString();
     }
 
-    private String toVDFString(VDFNode root, VDFNode current, StringBuilder whitespace, StringBuilder builder) {
-        current = current.parent != null
-                ? current
-                : current.child;     // takes care of the root
-        while (current != null) {
-            builder.append(whitespace);
-            if (current.name != null) {
-                builder.append("\"").append(current.name).append("\"");
-                builder.append(" ");
-            }
-            if (current.isEmpty() && !current.isNull()) {
-                builder.append("\"").append(current.value).append("\"");
-            }
-            else {
-                VDFNode child = current.child;
+    /**
+     * @param outputType how to lay out the string, see {@link VDFWriter.OutputType}
+     * @return a String representing this node and all of its children, see {@link #toVDFString()}. */
+    public String toVDFString(VDFWriter.OutputType outputType) {
+        return toVDFString(new StringBuilder(), outputType).toString();
+    }
+
+    /**
+     * Appends the human readable representation of this node and all of its children, see {@link #toVDFString()}.
+     * The tree is walked through its links rather than recursively, so trees of any depth can be written.
+     * @param output to append to, such as a {@link StringBuilder} or a {@link java.io.Writer}
+     * @return the output, for chaining
+     * @throws GdxRuntimeException if the output couldn't be appended to */
+    public <T extends Appendable> T toVDFString(T output) {
+        return toVDFString(output, VDFWriter.OutputType.PRETTY);
+    }
+
+    /**
+     * Appends the representation of this node and all of its children, see {@link #toVDFString(Appendable)}.
+     * @param output to append to, such as a {@link StringBuilder} or a {@link java.io.Writer}
+     * @param outputType how to lay out the representation, see {@link VDFWriter.OutputType}
+     * @return the output, for chaining
+     * @throws GdxRuntimeException if the output couldn't be appended to */
+    public <T extends Appendable> T toVDFString(T output, VDFWriter.OutputType outputType) {
+        boolean pretty = outputType == VDFWriter.OutputType.PRETTY;
+        boolean minimal = outputType == VDFWriter.OutputType.MINIMAL;
+        try {
+            VDFNode current = parent != null
+                    ? this
+                    : child();   // takes care of the root
+            int depth = 0;
+            while (current != null) {
+                if (pretty) {
+                    indent(output, depth);
+                }
                 if (current.name != null) {
-                    builder.append("\n");
+                    if (pretty) output.append('"').append(current.name).append("\" ");
+                    else appendToken(output, current.name, minimal);
                 }
-                builder.append(whitespace);
-                builder.append("{");
-                if (child != null) {
-                    builder.append("\n");
-                    whitespace.append("    ");
-                    toVDFString(root, current.child, whitespace, builder);
-                    whitespace.setLength(whitespace.length() - 4);
-                    builder.append(whitespace);
+                if (current.isEmpty() && !current.isNull()) {
+                    if (pretty) output.append('"').append(current.value).append('"');
+                    else appendToken(output, current.value, minimal);
                 }
                 else {
-                    builder.append("\n");
-                    builder.append(whitespace);
+                    if (pretty) {
+                        if (current.name != null) {
+                            output.append('\n');
+                        }
+                        indent(output, depth);
+                        output.append("{\n");
+                    }
+                    else {
+                        output.append('{');
+                    }
+                    VDFNode child = current.child();
+                    if (child != null) {
+                        // Descend, the closing brace is written once the last child is
+                        current = child;
+                        depth++;
+                        continue;
+                    }
+                    if (pretty) {
+                        indent(output, depth);
+                    }
+                    output.append('}');
                 }
-                builder.append("}");
-            }
-            if (current == root) {
-                if (!current.isEmpty()) {
-                    builder.append("\n");
+                // Move on to the next sibling, closing the subnodes whose last child was just written
+                while (true) {
+                    if (current == this) {
+                        if (pretty && !current.isEmpty()) {
+                            output.append('\n');
+                        }
+                        return output;
+                    }
+                    if (pretty) {
+                        output.append('\n');
+                    }
+                    if (current.next != null) {
+                        current = current.next;
+                        break;
+                    }
+                    if (depth == 0) {
+                        return output;
+                    }
+                    current = current.parent;
+                    depth--;
+                    if (pretty) {
+                        indent(output, depth);
+                    }
+                    output.append('}');
                 }
-                break;
             }
-            builder.append("\n");
-            current = current.next;
+            return output;
+        }
+        catch (IOException e) {
+            throw new GdxRuntimeException("Error writing VDF document.", e);
+        }
+    }
+
+    /**
+     * Writes this node and all of its children to a file in UTF-8, like {@link VDFWriter#writeNode(VDFNode)} does,
+     * streaming it through a {@link VDFWriter} instead of building the whole document in memory.
+     * @param path the file to write to, created or truncated
+     * @throws GdxRuntimeException if the file couldn't be written to */
+    public void writeTo(Path path) {
+        writeTo(path, VDFWriter.OutputType.PRETTY);
+    }
+
+    /**
+     * Writes this node and all of its children to a file in UTF-8, see {@link #writeTo(Path)}.
+     * @param path the file to write to, created or truncated
+     * @param outputType how to lay out the document, see {@link VDFWriter.OutputType}
+     * @throws GdxRuntimeException if the file couldn't be written to */
+    public void writeTo(Path path, VDFWriter.OutputType outputType) {
+        try (VDFWriter writer = new VDFWriter(Files.newOutputStream(path), StandardCharsets.UTF_8)) {
+            writer.setOutputType(outputType).writeNode(this);
+        }
+        catch (IOException e) {
+            throw new GdxRuntimeException("Error writing VDF document.", e);
+        }
+    }
+
+    private static void indent(Appendable output, int depth) throws IOException {
+        for (int i = 0; i < depth; i++) {
+            output.append("    ");
+        }
+    }
+
+    /** Appends a token for the compact output types, see {@link VDFWriter.OutputType}. */
+    private static void appendToken(Appendable output, CharSequence token, boolean minimal) throws IOException {
+        if (minimal && VDFUtils.isUnquotable(token)) {
+            output.append(token).append(' ');
+        }
+        else {
+            output.append('"').append(token).append('"');
+        }
+    }
+
+
+    /** Typed forms of a node's value, decoded on demand. Instances are immutable and replaced whenever another form is
+     * decoded, so nodes that are only read can still be shared between threads. */
+    private static final class DecodedValue {
+        static final int LONG = 1, FLOAT = 2, DOUBLE = 4;
+
+        final int flags;
+        final long longValue;
+        final float floatValue;
+        final double doubleValue;
+        /** The components of a {@link Color}, {@link Vector3} or {@link Vector2}, may be null. */
+        final float[] components;
+
+        private DecodedValue (int flags, long longValue, float floatValue, double doubleValue, float[] components) {
+            this.flags = flags;
+            this.longValue = longValue;
+            this.floatValue = floatValue;
+            this.doubleValue = doubleValue;
+            this.components = components;
+        }
+
+        static DecodedValue withLong (DecodedValue d, long value) {
+            return d == null
+                    ? new DecodedValue(LONG, value, 0, 0, null)
+                    : new DecodedValue(d.flags | LONG, value, d.floatValue, d.doubleValue, d.components);
+        }
+
+        static DecodedValue withFloat (DecodedValue d, float value) {
+            return d == null
+                    ? new DecodedValue(FLOAT, 0, value, 0, null)
+                    : new DecodedValue(d.flags | FLOAT, d.longValue, value, d.doubleValue, d.components);
+        }
+
+        static DecodedValue withDouble (DecodedValue d, double value) {
+            return d == null
+                    ? new DecodedValue(DOUBLE, 0, 0, value, null)
+                    : new DecodedValue(d.flags | DOUBLE, d.longValue, d.floatValue, value, d.components);
+        }
+
+        static DecodedValue withComponents (DecodedValue d, float[] components) {
+            return d == null
+                    ? new DecodedValue(0, 0, 0, 0, components)
+                    : new DecodedValue(d.flags, d.longValue, d.floatValue, d.doubleValue, components);
         }
-        return builder.toString();
     }
 
 
     public class VDFIterator implements Iterator<VDFNode>, Iterable<VDFNode> {
-        VDFNode entry = child;
+        VDFNode entry = child();
         VDFNode current;
 
         @Override
@@ -1560,6 +2179,8 @@ public class VDFNode {
                 current.prev.next = current.next;
                 if (current.next != null) current.next.prev = current.prev;
             }
+            if (last == current) last = current.prev;
+            if (index != null) index.remove(current);
             size--;
         }
 
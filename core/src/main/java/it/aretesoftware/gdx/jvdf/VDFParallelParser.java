@@ -0,0 +1,191 @@
+/*
+Copyright 2023 Arete
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package it.aretesoftware.gdx.jvdf;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Parses the subnodes of a VDF document in parallel. A {@link VDFBlockScanner} finds the subnodes of the first level
+ * holding enough of them, the rest of the document is parsed first with those subnodes left empty, then the contents of
+ * each subnode are parsed straight into it on a {@link ForkJoinPool}. Since every subnode already sits in its place,
+ * the resulting tree is the same as a serial parse.
+ * @author BucketOfBroccoli */
+final class VDFParallelParser {
+
+    /** Documents shorter than this are not worth splitting. */
+    static final int MIN_LENGTH = 1 << 16;
+
+    /** Tasks parse consecutive subnodes serially once they add up to fewer characters than this. */
+    private static final int TASK_LENGTH = 1 << 15;
+
+    private final String vdf;
+    private final boolean sliceValues;
+    private final boolean multiLine;
+    /** May be null. Not thread-safe, so it's only used by the parse of the rest of the document. */
+    private final VDFSymbolTable symbols;
+
+    private VDFBlockScanner.Blocks blocks;
+    private VDFNode[] nodes;
+
+    /**
+     * @param vdf the VDF document to parse
+     * @param sliceValues whether values are kept as slices of the document
+     * @param symbols the symbol table names are deduplicated through, may be null
+     * @param multiLine whether the document is tokenized in multi-line mode
+     */
+    VDFParallelParser(String vdf, boolean sliceValues, VDFSymbolTable symbols, boolean multiLine) {
+        this.vdf = vdf;
+        this.sliceValues = sliceValues;
+        this.multiLine = multiLine;
+        this.symbols = symbols;
+    }
+
+    /**
+     * Parses the document.
+     * @param pool the pool to parse the subnodes on
+     * @return a VDFNode which represents the root of the VDF document, or null if the document can't be split or the
+     * pool has a single thread, in which case it should be parsed serially
+     */
+    VDFNode parse(ForkJoinPool pool) {
+        if (vdf.length() < MIN_LENGTH || pool.getParallelism() < 2) return null;
+        VDFBlockScanner scanner = new VDFBlockScanner();
+        if (!scanner.scan(vdf, multiLine)) return null;
+
+        // Split on the first level holding enough subnodes to keep the pool busy
+        int level = 0;
+        while (level < VDFBlockScanner.LEVELS - 1 && scanner.levels[level].size < pool.getParallelism() * 4
+                && scanner.levels[level + 1].size > scanner.levels[level].size) {
+            level++;
+        }
+        blocks = scanner.levels[level];
+        if (blocks.size < 2) return null;
+
+        // Parse everything but the contents of the subnodes, which are skipped from brace to brace
+        SkeletonState skeleton = new SkeletonState(level + 1, blocks.size);
+        skeleton.internSymbols(symbols);
+        VDFTokenizer tokenizer = new VDFTokenizer(skeleton);
+        tokenizer.setMultiLine(multiLine);
+        int position = 0;
+        for (int i = 0; i < blocks.size; i++) {
+            tokenizer.tokenize(vdf, position, blocks.starts[i]);
+            tokenizer.setLineQuoted(blocks.endsLineQuoted[i]);
+            position = blocks.ends[i];
+        }
+        tokenizer.tokenize(vdf, position, vdf.length());
+        tokenizer.endTokenize();
+        if (skeleton.size != blocks.size) return null;
+        nodes = skeleton.nodes;
+
+        pool.invoke(new ParseTask(0, blocks.size));
+        return skeleton.root();
+    }
+
+    /**
+     * Parses the contents of a subnode into it.
+     * @param index the index of the subnode
+     * @param worker what the task parsing the subnode reuses
+     */
+    private void parseBlock(int index, Worker worker) {
+        VDFParserState state = new VDFParserState();
+        state.beginSubNode(nodes[index]);
+        state.internSymbols(worker.symbols);
+        VDFTokenizer tokenizer = new VDFTokenizer(state, worker.buffer);
+        tokenizer.setMultiLine(multiLine);
+        int start = blocks.starts[index];
+        if (sliceValues) {
+            state.sliceValues(vdf, start, tokenizer);
+        }
+        tokenizer.setLineQuoted(blocks.startsLineQuoted[index]);
+        // Include the closing brace, so the last key/value is committed exactly like a serial parse would
+        tokenizer.tokenize(vdf, start, blocks.ends[index] + 1);
+        tokenizer.endTokenize();
+    }
+
+    /**
+     * Parses a range of subnodes, splitting it in half until it's small enough.
+     */
+    private final class ParseTask extends RecursiveAction {
+        private final int from, to;
+
+        ParseTask(int from, int to) {
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from == 1 || blocks.ends[to - 1] - blocks.starts[from] <= TASK_LENGTH) {
+                Worker worker = new Worker();
+                for (int i = from; i < to; i++) {
+                    parseBlock(i, worker);
+                }
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new ParseTask(from, middle), new ParseTask(middle, to));
+        }
+    }
+
+    /**
+     * What a task reuses between the subnodes of its range. Owned by the task rather than its thread, so nothing
+     * outlives the parse on the threads of a long-lived pool.
+     */
+    private final class Worker {
+        /** The scratch buffer of the tokenizers. */
+        final char[] buffer = new char[VDFTokenizer.BUFFER_SIZE];
+        /** Deduplicates names within this task, may be null. */
+        final VDFSymbolTable symbols = VDFParallelParser.this.symbols != null ? VDFParallelParser.this.symbols.newTable() : null;
+    }
+
+    /**
+     * Parser state that keeps track of the subnodes created on the split level, in order.
+     */
+    private static final class SkeletonState extends VDFParserState {
+        private final int level;
+        private final VDFNode[] nodes;
+        private int size;
+        private int depth;
+
+        SkeletonState(int level, int capacity) {
+            this.level = level;
+            this.nodes = new VDFNode[capacity];
+        }
+
+        @Override
+        public void beginSubNode() {
+            VDFNode parent = current();
+            super.beginSubNode();
+            if (current() != parent && ++depth == level) {
+                if (size < nodes.length) {
+                    nodes[size] = current();
+                }
+                size++;
+            }
+        }
+
+        @Override
+        public void endSubNode() {
+            VDFNode node = current();
+            super.endSubNode();
+            if (current() != node) {
+                depth--;
+            }
+        }
+    }
+
+}
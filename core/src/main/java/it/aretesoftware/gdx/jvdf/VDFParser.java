@@ -16,26 +16,105 @@ limitations under the License.
 
 package it.aretesoftware.gdx.jvdf;
 
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.StreamUtils;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ForkJoinPool;
+
 /**
  * Parses VDF documents into iterable tree structures.
  * @author Brendan Heinonen */
 public class VDFParser {
 
+    private static final char[] NEWLINE = {'\n'};
+    private static final int BUFFER_SIZE = 8192;
+    /** The largest region of a file mapped at once. */
+    private static final long MAP_SIZE = 1 << 30;
+
+    /** May be null, in which case documents are parsed in a single pass by a {@link VDFTokenizer}. */
     private final VDFPreprocessor preprocessor;
 
+    /** Whether values parsed from Strings are kept as slices of the document. */
+    private boolean sliceValues = false;
+
+    /** The symbol table shared between parses, may be null. */
+    private VDFSymbolTable symbolTable;
+
+    /** Whether names are deduplicated through a new symbol table for every parse, when none is shared. */
+    private boolean internNames = false;
+
+    /** Whether block comments and quoted strings may span lines. */
+    private boolean multiLine = false;
+
     /**
      * Initializes the VDFParser with a specific preprocessor
-     * @param preprocessor the preprocessor to process input strings with
+     * @param preprocessor the preprocessor to process input strings with, may be null
      */
     public VDFParser(VDFPreprocessor preprocessor) {
         this.preprocessor = preprocessor;
     }
 
     /**
-     * Initializes the VDFParser with the default preprocessor (VDFPreprocessor)
+     * Initializes the VDFParser without a preprocessor. Documents are tokenized in a single pass by a
+     * {@link VDFTokenizer}, which strips comments, conditionals and whitespaces the same way {@link VDFPreprocessor} does.
      */
     public VDFParser() {
-        this(new VDFPreprocessor());
+        this(null);
+    }
+
+    /**
+     * Sets whether values of documents parsed from a String are kept as slices of the document, instead of being copied
+     * into their own Strings. A value's String is then only allocated when {@link VDFNode#asString()} is first called,
+     * numbers and booleans are decoded straight from the document. The document is kept in memory as long as any of its
+     * nodes is. Has no effect when parsing through a {@link VDFPreprocessor}. Names are always copied.
+     * @param sliceValues whether values should be kept as slices of the document, false by default
+     */
+    public void setSliceValues(boolean sliceValues) {
+        this.sliceValues = sliceValues;
+    }
+
+    /**
+     * Sets whether the names of nodes are deduplicated through a new {@link VDFSymbolTable} for every parse, so each
+     * distinct name of a document is allocated once. Ignored when a symbol table is shared through
+     * {@link #setSymbolTable(VDFSymbolTable)}.
+     * @param internNames whether names should be deduplicated, false by default
+     */
+    public void setInternNames(boolean internNames) {
+        this.internNames = internNames;
+    }
+
+    /**
+     * Sets whether {@code /* ... *}{@code /} comments and quoted strings may span lines, see
+     * {@link VDFTokenizer#setMultiLine(boolean)}. Quoted strings are then kept exactly as they are, whitespaces and
+     * line breaks included. When parsing through a {@link VDFPreprocessor}, its own
+     * {@link VDFPreprocessor#setMultiLine(boolean) setting} is used instead.
+     * @param multiLine whether block comments and quoted strings may span lines, false by default
+     */
+    public void setMultiLine(boolean multiLine) {
+        this.multiLine = multiLine;
+    }
+
+    /**
+     * Sets a {@link VDFSymbolTable} shared between all the documents parsed, so names, and values if the table is set
+     * up to, are deduplicated across documents too. Like the table itself, the parser is then not thread-safe, and
+     * neither is reading the trees returned by {@link #parseLazy(String)}, which keep using the table.
+     * @param symbolTable the symbol table to share, or null to stop sharing one
+     */
+    public void setSymbolTable(VDFSymbolTable symbolTable) {
+        this.symbolTable = symbolTable;
     }
 
     /**
@@ -44,7 +123,150 @@ public class VDFParser {
      * @return a VDFNode which represents the root of the VDF document
      */
     public VDFNode parse(String vdf) {
-        return parse(vdf.split("\\n"));
+        return read(vdf, newState()).root();
+    }
+
+    /**
+     * Parses a VDF document, reporting its contents to a {@link VDFHandler} instead of building nodes.
+     * @param vdf the VDF document to parse
+     * @param handler the handler to report key/value pairs and subnodes to
+     */
+    public void parse(String vdf, VDFHandler handler) {
+        read(vdf, newState(handler));
+    }
+
+    /**
+     * Parses a VDF document lazily. Only the top level of the document is parsed, the contents of every subnode are
+     * just scanned to find the braces of the subnodes nested in it, and are parsed the first time they're accessed
+     * through {@link VDFNode#child()}, a lookup or an iterator, one level at a time. Parsing time then scales with the
+     * parts of the document that are actually read, and reading all of it tokenizes every character twice at most,
+     * however deep the document is. The document is always tokenized like {@link VDFTokenizer} does, and errors inside
+     * a subnode are only reported once it's accessed.
+     * <p>
+     * Until a node's children are built, its public {@link VDFNode#child} field is null and its {@link VDFNode#size}
+     * field is 0, so code reading the fields directly sees an empty node. Read lazy trees through
+     * {@link VDFNode#child()} and {@link VDFNode#size()} instead, which build the children first:
+     * <pre>
+     * for (VDFNode entry = node.child(); entry != null; entry = entry.next)
+     * </pre>
+     * Nodes keep a reference to the document until their children are built, and building them is not thread-safe.
+     * With {@link #setInternNames(boolean)} or {@link #setSymbolTable(VDFSymbolTable)}, building children interns
+     * their names into the parse's symbol table, so a lazy tree must be read from a single thread, together with every
+     * other tree sharing the same table.
+     * @param vdf the VDF document to parse
+     * @return a VDFNode which represents the root of the VDF document
+     */
+    public VDFNode parseLazy(String vdf) {
+        return VDFLazySubtree.parse(vdf, sliceValues, symbols(), multiLine);
+    }
+
+    /**
+     * Parses a VDF document, splitting it between the threads of the common {@link ForkJoinPool}.
+     * @param vdf the VDF document to parse
+     * @return a VDFNode which represents the root of the VDF document
+     * @see #parseParallel(String, ForkJoinPool)
+     */
+    public VDFNode parseParallel(String vdf) {
+        return parseParallel(vdf, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Parses a VDF document, splitting it between the threads of a {@link ForkJoinPool}. A quick scan finds the
+     * subnodes of the root, or of its children if the root has too few, the rest of the document is parsed first and
+     * the contents of those subnodes are then parsed in parallel. The result is the same as {@link #parse(String)}.
+     * Small documents, documents without enough subnodes and pools with a single thread fall back to a serial parse.
+     * The document is always tokenized like {@link VDFTokenizer} does, and a shared {@link VDFSymbolTable} is only
+     * used outside of the split subnodes, which are deduplicated through a table per thread instead.
+     * @param vdf the VDF document to parse
+     * @param pool the pool to parse the subnodes on
+     * @return a VDFNode which represents the root of the VDF document
+     */
+    public VDFNode parseParallel(String vdf, ForkJoinPool pool) {
+        VDFNode root = new VDFParallelParser(vdf, sliceValues, symbols(), multiLine).parse(pool);
+        return root != null ? root : parse(vdf);
+    }
+
+    /**
+     * Parses a VDF document from a {@link Reader}. The document is read through a fixed-size buffer,
+     * so it is never held in memory as a whole. The reader is closed afterwards.
+     * @param reader the reader of the VDF document to parse
+     * @return a VDFNode which represents the root of the VDF document
+     * @throws VDFParseException if the reader couldn't be read
+     */
+    public VDFNode parse(Reader reader) {
+        return read(reader, newState()).root();
+    }
+
+    /**
+     * Parses a VDF document from a {@link Reader}, reporting its contents to a {@link VDFHandler} instead of building
+     * nodes. Only the nesting depth is kept in memory. The reader is closed afterwards.
+     * @param reader the reader of the VDF document to parse
+     * @param handler the handler to report key/value pairs and subnodes to
+     * @throws VDFParseException if the reader couldn't be read
+     */
+    public void parse(Reader reader, VDFHandler handler) {
+        read(reader, newState(handler));
+    }
+
+    /**
+     * Parses a VDF document from an {@link InputStream}. The stream is closed afterwards.
+     * @param input the stream of the VDF document to parse
+     * @param charset the charset the document is encoded with
+     * @return a VDFNode which represents the root of the VDF document
+     * @throws VDFParseException if the stream couldn't be read
+     */
+    public VDFNode parse(InputStream input, Charset charset) {
+        return parse(new InputStreamReader(input, charset));
+    }
+
+    /**
+     * Parses a UTF-8 encoded VDF document from a {@link FileHandle}.
+     * @param file the file of the VDF document to parse
+     * @return a VDFNode which represents the root of the VDF document
+     * @throws VDFParseException if the file couldn't be read
+     */
+    public VDFNode parse(FileHandle file) {
+        return parse(file.read(), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Parses a UTF-8 encoded VDF document from a {@link ByteBuffer}, from its position to its limit. The bytes are
+     * decoded as they are tokenized, so a {@link java.nio.MappedByteBuffer} is never copied onto the heap as a whole.
+     * A leading byte order mark is skipped.
+     * @param utf8 the buffer holding the VDF document to parse
+     * @return a VDFNode which represents the root of the VDF document
+     */
+    public VDFNode parse(ByteBuffer utf8) {
+        skipByteOrderMark(utf8);
+        if (preprocessor != null) {
+            return parse(StandardCharsets.UTF_8.decode(utf8).toString());
+        }
+        VDFTokenizer tokenizer = newTokenizer(newState());
+        tokenizer.tokenize(utf8);
+        tokenizer.endTokenize();
+        return tokenizer.state().root();
+    }
+
+    /**
+     * Parses a UTF-8 encoded VDF document from a file, mapping it into memory through {@link FileChannel#map}
+     * instead of reading it onto the heap. Meant for very large documents, only the parsed nodes take up heap space.
+     * @param path the path of the VDF document to parse
+     * @return a VDFNode which represents the root of the VDF document
+     * @throws VDFParseException if the file couldn't be read
+     */
+    public VDFNode parse(Path path) {
+        return read(path, newState()).root();
+    }
+
+    /**
+     * Parses a UTF-8 encoded VDF document from a file mapped into memory, reporting its contents to a
+     * {@link VDFHandler} instead of building nodes. Only the nesting depth is kept in memory.
+     * @param path the path of the VDF document to parse
+     * @param handler the handler to report key/value pairs and subnodes to
+     * @throws VDFParseException if the file couldn't be read
+     */
+    public void parse(Path path, VDFHandler handler) {
+        read(path, newState(handler));
     }
 
     /**
@@ -53,11 +275,91 @@ public class VDFParser {
      * @return a VDFNode which represents the node of the VDF document
      */
     public VDFNode parse(String[] vdf) {
-        String processed = preprocessor.process(vdf);
-        VDFParserState state = new VDFParserState();
+        return read(vdf, newState()).root();
+    }
+
+    private VDFParserState read(String vdf, VDFParserState state) {
+        if (preprocessor != null) {
+            return read(vdf.split("\\n"), state);
+        }
+        VDFTokenizer tokenizer = newTokenizer(state);
+        if (sliceValues) {
+            state.sliceValues(vdf, 0, tokenizer);
+        }
+        tokenizer.tokenize(vdf);
+        tokenizer.endTokenize();
+        return state;
+    }
+
+    private VDFParserState read(Reader reader, VDFParserState state) {
+        try {
+            if (preprocessor != null) {
+                return read(readLines(reader), state);
+            }
+            VDFTokenizer tokenizer = newTokenizer(state);
+            char[] buffer = new char[BUFFER_SIZE];
+            int read;
+            while ((read = reader.read(buffer, 0, buffer.length)) != -1) {
+                tokenizer.tokenize(buffer, 0, read);
+            }
+            tokenizer.endTokenize();
+            return state;
+        }
+        catch (IOException e) {
+            throw new VDFParseException("Error reading VDF document.", e);
+        }
+        finally {
+            StreamUtils.closeQuietly(reader);
+        }
+    }
+
+    private VDFParserState read(Path path, VDFParserState state) {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (preprocessor != null) {
+                return read(Channels.newReader(channel, StandardCharsets.UTF_8.name()), state);
+            }
+            VDFTokenizer tokenizer = newTokenizer(state);
+            long size = channel.size();
+            for (long position = 0; position < size; position += MAP_SIZE) {
+                ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(MAP_SIZE, size - position));
+                if (position == 0) {
+                    skipByteOrderMark(buffer);
+                }
+                tokenizer.tokenize(buffer);
+            }
+            tokenizer.endTokenize();
+            return state;
+        }
+        catch (IOException e) {
+            throw new VDFParseException("Error reading VDF document.", e);
+        }
+    }
 
-        char[] arr = processed.toCharArray();
-        for(char c : arr) {
+    private VDFParserState read(String[] vdf, VDFParserState state) {
+        if (preprocessor == null) {
+            VDFTokenizer tokenizer = newTokenizer(state);
+            for (String line : vdf) {
+                tokenizer.tokenize(line);
+                tokenizer.tokenize(NEWLINE, 0, 1);
+            }
+            tokenizer.endTokenize();
+            return state;
+        }
+
+        // Parse each chunk as soon as it's handed over, the minified document is never built as a whole
+        preprocessor.process(vdf, chunk -> parseProcessed(state, chunk));
+        state.endParse();
+        return state;
+    }
+
+    /**
+     * Feeds a chunk of a document minified by {@link VDFPreprocessor} to a parser state.
+     * @param state the parser state
+     * @param processed the chunk of the minified document
+     */
+    private static void parseProcessed(VDFParserState state, CharSequence processed) {
+        for (int i = 0, length = processed.length(); i < length; i++) {
+            char c = processed.charAt(i);
             switch (c) {
                 case '"':
                     state.quote();
@@ -79,10 +381,51 @@ public class VDFParser {
                     break;
             }
         }
-        state.endParse();
+    }
+
+    private VDFTokenizer newTokenizer(VDFParserState state) {
+        VDFTokenizer tokenizer = new VDFTokenizer(state);
+        tokenizer.setMultiLine(multiLine);
+        return tokenizer;
+    }
+
+    private VDFParserState newState() {
+        VDFParserState state = new VDFParserState();
+        state.internSymbols(symbols());
+        return state;
+    }
 
-        return state.root();
+    private VDFParserState newState(VDFHandler handler) {
+        if (handler == null) throw new IllegalArgumentException("handler cannot be null.");
+        VDFParserState state = new VDFHandlerState(handler);
+        state.internSymbols(symbols());
+        return state;
     }
 
+    /** @return the symbol table for the next parse, may be null */
+    private VDFSymbolTable symbols() {
+        if (symbolTable != null) return symbolTable;
+        return internNames ? new VDFSymbolTable() : null;
+    }
+
+    private String[] readLines(Reader reader) throws IOException {
+        BufferedReader lineReader = new BufferedReader(reader, BUFFER_SIZE);
+        Array<String> lines = new Array<>(String.class);
+        String line;
+        while ((line = lineReader.readLine()) != null) {
+            lines.add(line);
+        }
+        return lines.toArray();
+    }
+
+    private static void skipByteOrderMark(ByteBuffer utf8) {
+        int position = utf8.position();
+        if (utf8.remaining() >= 3
+                && utf8.get(position) == (byte) 0xEF
+                && utf8.get(position + 1) == (byte) 0xBB
+                && utf8.get(position + 2) == (byte) 0xBF) {
+            utf8.position(position + 3);
+        }
+    }
 
 }
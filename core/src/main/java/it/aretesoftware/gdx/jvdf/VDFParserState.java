@@ -69,6 +69,32 @@ public class VDFParserState {
      */
     private final StringBuilder currentString = new StringBuilder();
 
+    /**
+     * The symbol table names and short values are deduplicated through. May be null.
+     */
+    private VDFSymbolTable symbols;
+
+    /**
+     * The document values are sliced from, see {@link #sliceValues(String, int, VDFTokenizer)}. May be null.
+     */
+    private String source;
+
+    /**
+     * The tokenizer feeding this parser state, used to find where characters are in {@link #source}.
+     */
+    private VDFTokenizer tokenizer;
+
+    /**
+     * The index in {@link #source} of the first character fed to the tokenizer.
+     */
+    private int sourceOffset;
+
+    /**
+     * The region of {@link #source} the current string was read from. Only meaningful if the current string turns out
+     * to be an exact copy of it.
+     */
+    private int stringStart, stringEnd;
+
     /**
      * Initializes the parser state with a starting root node.
      * @param root an existing root node
@@ -86,6 +112,27 @@ public class VDFParserState {
     }
 
 
+    /**
+     * Makes this parser state deduplicate names, and values short enough, through a symbol table.
+     * @param symbols the symbol table to use, may be null
+     */
+    void internSymbols(VDFSymbolTable symbols) {
+        this.symbols = symbols;
+    }
+
+    /**
+     * Makes this parser state keep values as slices of the document, instead of copying them into Strings, whenever
+     * they appear in the document exactly as they are. Values with escapes or collapsed whitespaces are still copied.
+     * @param source the document being parsed
+     * @param offset the index in the document of the first character fed to the tokenizer
+     * @param tokenizer the tokenizer feeding this parser state
+     */
+    void sliceValues(String source, int offset, VDFTokenizer tokenizer) {
+        this.source = source;
+        this.sourceOffset = offset;
+        this.tokenizer = tokenizer;
+    }
+
     /**
      * Returns the root VDFNode for this parser state.
      * @return the VDFNode representing the root of the VDF document
@@ -146,12 +193,13 @@ public class VDFParserState {
             // If valuePending was toggled to false, the last
             if(valuePending) {
                 // Store the key name
-                keyName = currentString.toString();
+                keyName = symbols != null
+                        ? symbols.intern(currentString)
+                        : currentString.toString();
                 //System.out.println(keyName);
             } else {
                 // add a child
-                VDFNode node = new VDFNode(currentString.toString());
-                current().addChild(keyName, node);
+                addValue(keyName);
             }
 
             resetString();
@@ -185,6 +233,15 @@ public class VDFParserState {
         // If the character is not a control character, append it to the current string
         currentString.append(c);
 
+        // Track where the current string lies in the document
+        if (source != null) {
+            int position = sourceOffset + (int) tokenizer.position();
+            if (currentString.length() == 1) {
+                stringStart = position;
+            }
+            stringEnd = position + 1;
+        }
+
         // Reset the escape state
         escapePending = false;
     }
@@ -196,19 +253,20 @@ public class VDFParserState {
         if(escapePending || quoteState) {
             character('{');
         } else {
-            // Create new subnode
-            VDFNode node = new VDFNode();
-
-            // Set the current node's value
-            current().addChild(keyName, node);
-
-            // Push node onto child node stack
-            childStack.push(node);
-
+            pushSubNode(keyName);
             resetKV();
         }
     }
 
+    /**
+     * Start a subnode context inside an existing node, as if its opening brace had just been handled.
+     * @param node the node to add key/values to
+     */
+    void beginSubNode(VDFNode node) {
+        childStack.push(node);
+        resetKV();
+    }
+
     /**
      * End a subnode context.
      */
@@ -218,11 +276,7 @@ public class VDFParserState {
         } else {
             // At this point, we're done adding key/values, so reset the string buffer and KV state
             resetKV();
-
-            // Popping the root node means there were more ended subnodes than subnodes that existed
-            if (rootNode == childStack.pop()) {
-                throw new VDFParseException("The root node was popped. There was a subnode mismatch (misplaced '}'?).");
-            }
+            popSubNode();
         }
     }
 
@@ -234,13 +288,83 @@ public class VDFParserState {
         // Call space to commit the current KV pair
         space();
 
-        if(childStack.peek() != rootNode) {
+        if(!atRoot()) {
             throw new VDFParseException("The root node was not at the top of the stack at the end of parsing. " +
                     "There was a subnode mismatch (misplaced '{'?)");
         }
     }
 
 
+    /**
+     * Adds a key/value pair to the current node, the value being the current string.
+     * @param name the name of the key/value pair
+     */
+    void addValue(String name) {
+        String symbol = symbols != null ? symbols.internValue(currentString) : null;
+        VDFNode node = symbol != null
+                ? new VDFNode(symbol)
+                : isSlice()
+                ? new VDFNode(new VDFSlice(source, stringStart, stringEnd - stringStart))
+                : new VDFNode(currentString.toString());
+        current().addChild(name, node);
+    }
+
+    /**
+     * Adds a new subnode to the current node, and makes it the current node.
+     * @param name the name of the subnode
+     */
+    void pushSubNode(String name) {
+        // Create new subnode
+        VDFNode node = new VDFNode();
+
+        // Set the current node's value
+        current().addChild(name, node);
+
+        // Push node onto child node stack
+        childStack.push(node);
+    }
+
+    /**
+     * Makes the parent of the current node the current node.
+     */
+    void popSubNode() {
+        // Popping the root node means there were more ended subnodes than subnodes that existed
+        if (rootNode == childStack.pop()) {
+            throw new VDFParseException("The root node was popped. There was a subnode mismatch (misplaced '}'?).");
+        }
+    }
+
+    /**
+     * @return if the current node is the root node
+     */
+    boolean atRoot() {
+        return childStack.peek() == rootNode;
+    }
+
+    /**
+     * @return the current string, only valid until the parser state is fed another character
+     */
+    CharSequence string() {
+        return currentString;
+    }
+
+    /**
+     * Checks whether the current string can be kept as a slice of the document.
+     * @return if the current string is not empty and is an exact copy of the region it was read from
+     */
+    private boolean isSlice() {
+        int length = currentString.length();
+        if (source == null || length == 0 || stringEnd - stringStart != length) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (source.charAt(stringStart + i) != currentString.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
     /**
      * Clears the string buffer.
      */
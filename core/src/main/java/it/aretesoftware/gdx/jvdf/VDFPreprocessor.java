@@ -16,15 +16,90 @@ limitations under the License.
 
 package it.aretesoftware.gdx.jvdf;
 
-import java.util.stream.IntStream;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
 
 /**
  * The VDF preprocessor transforms valid, human-readable VDF into minified, less-than-humanly readable VDF that is
  * more easily parsed. This two-stage process allows for far easier parallelization, as each line can be mapped to a
- * worker thread.
+ * worker thread. Which threads, if any, is decided by a {@link VDFExecution}, and lines are processed in chunks of
+ * consecutive lines, each into its own buffer. In {@link #setMultiLine(boolean) multi-line} mode, where lines depend
+ * on the ones before them, chunks are still processed in parallel and then fixed up.
  * @author Brendan Heinonen */
 public class VDFPreprocessor {
 
+    /** Chunk buffers larger than this many characters aren't kept for the next document. */
+    private static final int MAX_RETAINED_CAPACITY = 1 << 20;
+
+    // The states a line may start in, in multi-line mode
+    private static final byte NORMAL = 0, QUOTED = 1, COMMENT = 2, ESCAPED = 3, STATES = 4;
+    /** Returned by a chunk scan that reached the same state as the processed chunk. */
+    private static final byte CONVERGED = -1;
+
+    private VDFExecution execution;
+
+    /** Whether block comments and quoted strings may span lines. */
+    private boolean multiLine = false;
+
+    /**
+     * The chunk buffers reused between documents. Taken while processing a document, so concurrent calls allocate
+     * their own.
+     */
+    private final AtomicReference<StringBuilder[]> buffers = new AtomicReference<>();
+
+    /**
+     * Initializes a preprocessor that only processes large documents in parallel, on the common
+     * {@link java.util.concurrent.ForkJoinPool}. This is only used by parsers created with a preprocessor, the default
+     * {@link VDFParser#VDFParser()} doesn't preprocess documents.
+     * @see VDFExecution#automatic()
+     */
+    public VDFPreprocessor() {
+        this(VDFExecution.automatic());
+    }
+
+    /**
+     * Initializes a preprocessor.
+     * @param execution how lines are processed
+     */
+    public VDFPreprocessor(VDFExecution execution) {
+        setExecution(execution);
+    }
+
+    /**
+     * @return how lines are processed
+     */
+    public VDFExecution getExecution() {
+        return execution;
+    }
+
+    /**
+     * Sets how lines are processed, for example {@link VDFExecution#sequential()} or a {@link VDFExecution#forkJoin}
+     * pool dedicated to parsing.
+     * @param execution how lines are processed
+     */
+    public void setExecution(VDFExecution execution) {
+        if (execution == null) throw new IllegalArgumentException("execution cannot be null.");
+        this.execution = execution;
+    }
+
+    /**
+     * @return whether block comments and quoted strings may span lines
+     */
+    public boolean isMultiLine() {
+        return multiLine;
+    }
+
+    /**
+     * Sets whether {@code /* ... *}{@code /} comments and quoted strings may span lines, false by default. Quoted
+     * strings are then kept exactly as they are, whitespaces and line breaks included, like
+     * {@link VDFTokenizer#setMultiLine(boolean)} does. Only whole documents are affected, {@link #processLines} and
+     * {@link #processLine} still process each line on its own.
+     * @param multiLine whether block comments and quoted strings may span lines
+     */
+    public void setMultiLine(boolean multiLine) {
+        this.multiLine = multiLine;
+    }
+
     /**
      * Preprocesses a VDF document into a minified, less-than-humanly readable, but still valid VDF document with
      * comments and unnecessary whitepsaces removed..
@@ -42,31 +117,46 @@ public class VDFPreprocessor {
      * @return a VDF document transformed from the input document
      */
     public String process(String[] lines) {
-        // Execute line processors on each line
-        processLines(lines);
-
-        // Rebuild output VDF
         StringBuilder builder = new StringBuilder(lines.length * 20);
-        for (int i = 0, linesLength = lines.length; i < linesLength; i++) {
-            String s = lines[i];
-            if (s != null && s.length() > 0) {
-                builder.append(s);
+        process(lines, builder::append);
+        return builder.toString();
+    }
 
-                if(i < linesLength - 1)
-                    builder.append(" ");
+    /**
+     * Preprocesses a VDF document, handing the minified document to a consumer in chunks, in order, instead of building
+     * it as a whole. Chunks of lines are processed according to the {@link #setExecution(VDFExecution) execution} of
+     * this preprocessor, each into its own buffer, and the buffers are reused for the next document.
+     * @param lines an array of lines of a VDF document to process
+     * @param consumer the consumer of the chunks, which are only valid until it returns
+     */
+    public void process(String[] lines, Consumer<? super CharSequence> consumer) {
+        int chunkSize = execution.chunkSize(lines.length);
+        int chunks = (lines.length + chunkSize - 1) / chunkSize;
+        StringBuilder[] buffers = takeBuffers(chunks);
+        try {
+            if (multiLine) {
+                processMultiLine(lines, chunkSize, chunks, buffers);
+            }
+            else {
+                execution.executeChunks(lines.length,
+                        (chunk, from, to) -> processChunk(lines, from, to, buffers[chunk]));
+            }
+            for (int i = 0; i < chunks; i++) {
+                consumer.accept(buffers[i]);
             }
         }
-        return builder.toString();
+        finally {
+            releaseBuffers(buffers);
+        }
     }
 
     /**
      * Preprocesses an array of lines in a VDF document, and stores the resultant processed lines back into the array.
+     * Lines are processed according to the {@link #setExecution(VDFExecution) execution} of this preprocessor.
      * @param lines the lines to process
      */
     public void processLines(String[] lines) {
-        IntStream.range(0, lines.length)
-                .parallel()
-                .forEach(i -> lines[i] = processLine(lines[i]));
+        execution.execute(lines.length, i -> lines[i] = processLine(lines[i]));
     }
 
     /**
@@ -75,19 +165,184 @@ public class VDFPreprocessor {
      * @return the line after it has been processed
      */
     public String processLine(final String line) {
+        // Pre-warm StringBuilder with the original line length for fewer allocations
+        StringBuilder sb = new StringBuilder(line.length());
+        return processLine(line, sb) ? sb.toString() : null;
+    }
+
+    /**
+     * Preprocesses a range of lines in a VDF document, separating the processed lines with a space.
+     * @param lines the lines of the VDF document
+     * @param from the index of the first line to process
+     * @param to the index after the last line to process
+     * @param sb the buffer to append the processed lines to
+     */
+    private void processChunk(String[] lines, int from, int to, StringBuilder sb) {
+        for (int i = from, last = lines.length - 1; i < to; i++) {
+            int length = sb.length();
+            processLine(lines[i], sb);
+            if (sb.length() > length && i < last)
+                sb.append(' ');
+        }
+    }
+
+    /**
+     * Preprocesses a VDF document in multi-line mode, where each line depends on the state the previous ones end in.
+     * First every chunk is processed as if it started outside of comments and quotes, and also scanned from every other
+     * state to find where it would end. Then the state each chunk actually starts in is worked out in order, chunk by
+     * chunk, and the few chunks that didn't start outside of comments and quotes are processed again.
+     * @param lines the lines of the VDF document
+     * @param chunkSize the amount of lines per chunk
+     * @param chunks the amount of chunks
+     * @param buffers the buffer of each chunk
+     */
+    private void processMultiLine(String[] lines, int chunkSize, int chunks, StringBuilder[] buffers) {
+        // The state each chunk ends in, for each state it may start in
+        byte[] exits = new byte[chunks * STATES];
+        // The state each line starts in, when its chunk starts in the normal state
+        byte[] lineStates = new byte[lines.length];
+        execution.executeChunks(lines.length, (chunk, from, to) -> {
+            byte exit = processChunk(lines, from, to, NORMAL, buffers[chunk], lineStates);
+            exits[chunk * STATES] = exit;
+            for (byte state = NORMAL + 1; state < STATES; state++) {
+                byte scanned = processChunk(lines, from, to, state, null, lineStates);
+                exits[chunk * STATES + state] = scanned == CONVERGED ? exit : scanned;
+            }
+        });
+
+        int[] misses = new int[chunks];
+        byte[] entries = new byte[chunks];
+        int missCount = 0;
+        byte state = NORMAL;
+        for (int chunk = 0; chunk < chunks; chunk++) {
+            if (state != NORMAL) misses[missCount++] = chunk;
+            entries[chunk] = state;
+            state = exits[chunk * STATES + state];
+        }
+
+        execution.execute(missCount, i -> {
+            int chunk = misses[i], from = chunk * chunkSize;
+            buffers[chunk].setLength(0);
+            processChunk(lines, from, Math.min(from + chunkSize, lines.length), entries[chunk], buffers[chunk], null);
+        });
+    }
+
+    /**
+     * Preprocesses a range of lines in multi-line mode, separating the processed lines with a space, or with a line
+     * break inside quoted strings.
+     * @param lines the lines of the VDF document
+     * @param from the index of the first line to process
+     * @param to the index after the last line to process
+     * @param state the state the first line starts in
+     * @param sb the buffer to append the processed lines to, or null to only follow the state of the lines
+     * @param lineStates the state each line starts in, recorded while processing and compared against while only
+     * following the state, may be null
+     * @return the state the last line ends in, or {@link #CONVERGED} if only following the state and a line started in
+     * the recorded state
+     */
+    private static byte processChunk(String[] lines, int from, int to, byte state, StringBuilder sb,
+                                     byte[] lineStates) {
+        for (int i = from, last = lines.length - 1; i < to; i++) {
+            if (lineStates != null) {
+                if (sb != null) lineStates[i] = state;
+                else if (i > from && lineStates[i] == state) return CONVERGED;
+            }
+            int length = sb != null ? sb.length() : 0;
+            byte next = processLine(lines[i], state, sb);
+            if (sb != null && i < last) {
+                if (next == QUOTED)
+                    sb.append('\n');
+                else if (sb.length() > length)
+                    sb.append(' ');
+            }
+            state = next;
+        }
+        return state;
+    }
+
+    /**
+     * Preprocesses a single line in a VDF document in multi-line mode. Quoted strings are kept as they are, the
+     * quotes followed are exactly those of {@link VDFParserState}, escapes included.
+     * @param line the original line to process
+     * @param state the state the line starts in
+     * @param sb the buffer to append the processed line to, or null to only follow the state of the line
+     * @return the state the line ends in
+     */
+    private static byte processLine(String line, byte state, StringBuilder sb) {
+        boolean quoted = state == QUOTED, comment = state == COMMENT, escaped = state == ESCAPED;
+        boolean hitWord = false, spacePending = false, starPending = false;
+        for (int i = 0, length = line.length(); i < length; i++) {
+            char c = line.charAt(i);
+
+            // Skip the comment up to its end, which separates words just like a whitespace
+            if (comment) {
+                if (starPending && c == '/') {
+                    comment = false;
+                    spacePending = hitWord;
+                }
+                starPending = c == '*';
+                continue;
+            }
+            if (c == '\r')
+                continue;
+
+            if (!quoted) {
+                if (c == '/' && i + 1 < length) {
+                    char n = line.charAt(i + 1);
+                    // Strip the rest of the line
+                    if (n == '/')
+                        break;
+                    if (n == '*') {
+                        comment = true;
+                        starPending = false;
+                        i++;
+                        continue;
+                    }
+                }
+                // Strip conditional statement
+                if (c == '[')
+                    break;
+                if (isWhitespace(c)) {
+                    spacePending = hitWord;
+                    continue;
+                }
+                if (spacePending) {
+                    spacePending = false;
+                    if (sb != null) sb.append(' ');
+                }
+            }
+
+            hitWord = true;
+            if (sb != null) sb.append(c);
+            if (c == '"') {
+                if (escaped) escaped = false;
+                else quoted = !quoted;
+            }
+            else if (c == '\\') {
+                escaped = !escaped;
+            }
+            else {
+                escaped = false;
+            }
+        }
+        return quoted ? QUOTED : comment ? COMMENT : escaped ? ESCAPED : NORMAL;
+    }
+
+    /**
+     * Preprocesses a single line in a VDF document.
+     * @param line the original line to process
+     * @param sb the buffer to append the processed line to
+     * @return false if the whole line is a comment
+     */
+    private boolean processLine(final String line, final StringBuilder sb) {
         /*
          * I understand that this is control-flow spaghetti. This was originally written far cleaner, but was
          * significantly changed to a single iteration for performance reasons.
          */
 
-        // Pre-warm StringBuilder with the original line length for fewer allocations
-        StringBuilder sb = new StringBuilder(line.length());
-
-        char[] charArray = line.toCharArray();
-
         // If the first characters of a line are a comment, we can immediately discard it
-        if(charArray.length >= 2 && isComment(charArray, 0)) {
-            return null;
+        if(line.length() >= 2 && isComment(line, 0)) {
+            return false;
         }
 
         // Whether a word character has been hit yet in this loop
@@ -96,19 +351,19 @@ public class VDFPreprocessor {
         // Whether the line currently has unclosed quotes
         boolean openQuotes = false;
 
-        // Iterate character array
-        for (int i = 0, charArrayLength = charArray.length; i < charArrayLength; i++) {
-            char c = charArray[i];
+        // Iterate the characters of the line
+        for (int i = 0, lineLength = line.length(); i < lineLength; i++) {
+            char c = line.charAt(i);
             char n = 0;
             char p = 0;
-            boolean hasNext = i < charArrayLength - 1;
+            boolean hasNext = i < lineLength - 1;
             boolean hasPrevious = i > 0;
 
             if(c == '\n' || c == '\r')
                 continue;
 
             if(hasPrevious)
-                p = charArray[i - 1];
+                p = line.charAt(i - 1);
 
 
             // Toggle open quote flag if we've encountered an unescaped quote
@@ -118,17 +373,17 @@ public class VDFPreprocessor {
 
             // Strip C-style comments
             if(hasNext) {
-                n = charArray[i + 1];
+                n = line.charAt(i + 1);
 
                 // If we're not in quotes and this is a comment, immediately return from this line
-                if (!openQuotes && isComment(charArray, i)) {
-                    return sb.toString();
+                if (!openQuotes && isComment(line, i)) {
+                    return true;
                 }
             }
 
             // Strip conditional statement
             if(!openQuotes && c == '[')
-                return sb.toString();
+                return true;
 
             // Strip whitespace
             if(isWhitespace(c)) {
@@ -148,9 +403,9 @@ public class VDFPreprocessor {
                     boolean brk = false;
 
                     // Iterate the rest of the line. If it hits a non-whitespace character, it will break.
-                    for(int j = i; j < charArrayLength && isWhitespace(charArray[j]); j++) {
+                    for(int j = i; j < lineLength && isWhitespace(line.charAt(j)); j++) {
                         // If we've made it to the end, that means the rest of the line is whitespace
-                        if(j == charArrayLength - 1)
+                        if(j == lineLength - 1)
                             brk = true;
                     }
 
@@ -168,24 +423,58 @@ public class VDFPreprocessor {
 
         }
 
-        return sb.toString();
+        return true;
     }
 
     /**
      * Determines whether or not a character sequence is a VDF comment.  VDF comments are C-style comments, except that
      * the comment will always take up the entire rest of the line. For that reason, block termination does not need to
      * be checked.
-     * @param arr the first character to test
-     * @param index the second character to test, which must be immediately after f
+     * @param line the line holding the characters to test
+     * @param index the index of the first character to test, the second one must be immediately after it
      * @return if the two characters represent a VDF, C-style comment
      */
-    private boolean isComment(char[] arr, int index) {
-        char f = arr[index];
-        char s = arr[index + 1];
+    private boolean isComment(String line, int index) {
+        char f = line.charAt(index);
+        char s = line.charAt(index + 1);
 
         return f == '/' && (s == '*' || s == '/');
     }
 
+    /**
+     * Takes the chunk buffers for a document, reusing the ones of the previous documents.
+     * @param count the amount of chunks
+     * @return at least count empty buffers
+     */
+    private StringBuilder[] takeBuffers(int count) {
+        StringBuilder[] buffers = this.buffers.getAndSet(null);
+        if (buffers == null || buffers.length < count) {
+            StringBuilder[] newBuffers = new StringBuilder[count];
+            if (buffers != null) {
+                System.arraycopy(buffers, 0, newBuffers, 0, buffers.length);
+            }
+            buffers = newBuffers;
+        }
+        for (int i = 0; i < count; i++) {
+            if (buffers[i] == null) buffers[i] = new StringBuilder();
+            else buffers[i].setLength(0);
+        }
+        return buffers;
+    }
+
+    /**
+     * Gives back the chunk buffers of a document, dropping the ones grown too large to keep around.
+     * @param buffers the buffers to give back
+     */
+    private void releaseBuffers(StringBuilder[] buffers) {
+        for (int i = 0; i < buffers.length; i++) {
+            if (buffers[i] != null && buffers[i].capacity() > MAX_RETAINED_CAPACITY) {
+                buffers[i] = null;
+            }
+        }
+        this.buffers.set(buffers);
+    }
+
     /**
      * Determines whether or not a character is considered a VDF whitespace character. According to the VDF spec,
      * whitespace characters include space, return, newline, and tab. Since the preprocessor will immediately strip
@@ -193,7 +482,7 @@ public class VDFPreprocessor {
      * @param c the character to test
      * @return if the character is considered VDF whitespace character
      */
-    private boolean isWhitespace(char c) {
+    private static boolean isWhitespace(char c) {
         return c == ' ' || c == '\t' || c == 0x0B;
     }
 
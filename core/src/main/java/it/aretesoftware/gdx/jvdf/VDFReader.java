@@ -0,0 +1,393 @@
+/*
+Copyright 2023 Arete
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package it.aretesoftware.gdx.jvdf;
+
+import com.badlogic.gdx.utils.StreamUtils;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.Arrays;
+
+/**
+ * Pull parser that reads a VDF document one token at a time, instead of building a tree of {@link VDFNode}s. A key/value
+ * pair is read as a {@link Token#KEY} followed by a {@link Token#VALUE}, a subnode as a {@link Token#KEY} followed by
+ * an {@link Token#OBJECT_START}, its children and an {@link Token#OBJECT_END}:
+ * <pre>
+ * while (reader.next() == VDFReader.Token.KEY) {
+ *     if (reader.name().equals("damage")) damage = reader.readInt();
+ *     else reader.skipChildren();
+ * }
+ * </pre>
+ * The document is tokenized a small slice at a time as tokens are requested, and values are decoded straight from a
+ * reused buffer, so reading allocates next to nothing but the names and what's kept. Names can also be deduplicated
+ * through a {@link VDFSymbolTable}, see {@link #setSymbolTable(VDFSymbolTable)}. The document is tokenized like
+ * {@link VDFTokenizer} does.
+ * @author BucketOfBroccoli */
+public class VDFReader implements Closeable {
+
+    /**
+     * The tokens of a VDF document.
+     */
+    public enum Token {
+        /** The name of a key/value pair or subnode, see {@link #name()}. */
+        KEY,
+        /** The value of a key/value pair, see {@link #value()}. */
+        VALUE,
+        /** The beginning of a subnode. */
+        OBJECT_START,
+        /** The end of a subnode. */
+        OBJECT_END,
+        /** The end of the document, returned by every call to {@link #next()} from then on. */
+        END_DOCUMENT
+    }
+
+    private static final int BUFFER_SIZE = 8192;
+
+    /** The amount of characters tokenized at a time, which bounds the amount of queued tokens. */
+    private static final int SLICE_SIZE = 256;
+
+    private final String source;
+    private final Reader reader;
+    private final char[] buffer;
+    private int position, limit;
+
+    private final ReaderState state = new ReaderState();
+    private final VDFTokenizer tokenizer = new VDFTokenizer(state);
+    private boolean ended;
+
+    // Tokens parsed but not read yet, with their names and the end of their values in texts
+    private Token[] tokens = new Token[32];
+    private String[] names = new String[32];
+    private int[] textEnds = new int[32];
+    private int head, tail;
+    private final StringBuilder texts = new StringBuilder();
+
+    private Token token;
+    private String name;
+    private final StringBuilder value = new StringBuilder();
+    private int depth;
+
+    /**
+     * Initializes a reader of a VDF document held in a String.
+     * @param vdf the VDF document to read
+     */
+    public VDFReader(String vdf) {
+        this.source = vdf;
+        this.reader = null;
+        this.buffer = null;
+    }
+
+    /**
+     * Initializes a reader of a VDF document read through a fixed-size buffer, so it's never held in memory as a
+     * whole. The reader is closed by {@link #close()}, or once the end of the document is reached.
+     * @param reader the reader of the VDF document to read
+     */
+    public VDFReader(Reader reader) {
+        this.source = null;
+        this.reader = reader;
+        this.buffer = new char[BUFFER_SIZE];
+    }
+
+    /**
+     * Sets whether block comments and quoted strings may span lines, see {@link VDFTokenizer#setMultiLine(boolean)}.
+     * Must be set before reading.
+     * @param multiLine whether block comments and quoted strings may span lines, false by default
+     */
+    public void setMultiLine(boolean multiLine) {
+        tokenizer.setMultiLine(multiLine);
+    }
+
+    /**
+     * Sets a {@link VDFSymbolTable} to deduplicate names through, like {@link VDFParser#setSymbolTable(VDFSymbolTable)}
+     * does. Names that repeat then share a single String, at the cost of the table holding on to every distinct name
+     * read, so it suits documents with a limited set of names rather than ones keyed by unique IDs. Like the table
+     * itself, the reader is then not thread-safe.
+     * @param symbolTable the symbol table to use, or null not to deduplicate names, the default
+     */
+    public void setSymbolTable(VDFSymbolTable symbolTable) {
+        state.internSymbols(symbolTable);
+    }
+
+    /**
+     * Advances to the next token.
+     * @return the next token, {@link Token#END_DOCUMENT} once the whole document has been read
+     * @throws VDFParseException if the document couldn't be read, or its braces are mismatched
+     */
+    public Token next() {
+        if (head == tail) {
+            fill();
+        }
+        token = tokens[head];
+        switch (token) {
+            case KEY:
+                name = names[head];
+                break;
+            case VALUE:
+                value.setLength(0);
+                value.append(texts, head == 0 ? 0 : textEnds[head - 1], textEnds[head]);
+                break;
+            case OBJECT_START:
+                depth++;
+                break;
+            case OBJECT_END:
+                depth--;
+                break;
+            default:
+                return token;
+        }
+        head++;
+        return token;
+    }
+
+    /**
+     * @return the current token, null before the first call to {@link #next()}
+     */
+    public Token token() {
+        return token;
+    }
+
+    /**
+     * @return the name of the last {@link Token#KEY}, which is the name of the current value or subnode
+     */
+    public String name() {
+        return name;
+    }
+
+    /**
+     * @return the amount of subnodes the current token is in, counting the one it starts but not the one it ends
+     */
+    public int depth() {
+        return depth;
+    }
+
+    /**
+     * Returns the current value, only valid until the next call to {@link #next()}.
+     * @return the current value
+     * @throws IllegalStateException if the current token is not a {@link Token#VALUE}
+     */
+    public CharSequence value() {
+        if (token != Token.VALUE) {
+            throw new IllegalStateException("Not a value: " + token);
+        }
+        return value;
+    }
+
+    /**
+     * Reads the value of the current key/value pair, advancing to it first if the current token is its
+     * {@link Token#KEY}.
+     * @return the value as a String
+     * @throws IllegalStateException if the key is followed by a subnode instead
+     */
+    public String readString() {
+        return readValue().toString();
+    }
+
+    /**
+     * Reads the value of the current key/value pair as an int, see {@link #readString()}.
+     * @return the value as an int
+     * @throws NumberFormatException if the value is not an int
+     */
+    public int readInt() {
+        long value = readLong();
+        if (value < Integer.MIN_VALUE || value > Integer.MAX_VALUE) {
+            throw new NumberFormatException("Value out of range. Value:\"" + this.value + "\"");
+        }
+        return (int) value;
+    }
+
+    /**
+     * Reads the value of the current key/value pair as a long, see {@link #readString()}.
+     * @return the value as a long
+     * @throws NumberFormatException if the value is not a long
+     */
+    public long readLong() {
+        return VDFUtils.toLong(readValue());
+    }
+
+    /**
+     * Reads the value of the current key/value pair as a float, see {@link #readString()}.
+     * @return the value as a float
+     * @throws NumberFormatException if the value is not a number
+     */
+    public float readFloat() {
+        return VDFUtils.toFloat(readValue());
+    }
+
+    /**
+     * Reads the value of the current key/value pair as a boolean, see {@link #readString()}.
+     * @return true if the value is "true", ignoring case, like {@link Boolean#parseBoolean(String)}
+     */
+    public boolean readBoolean() {
+        CharSequence value = readValue();
+        if (value.length() != 4) return false;
+        String expected = "true";
+        for (int i = 0; i < 4; i++) {
+            if (Character.toLowerCase(value.charAt(i)) != expected.charAt(i)) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Skips over the children of the current subnode. If the current token is an {@link Token#OBJECT_START}, advances
+     * to its {@link Token#OBJECT_END}. If it's a {@link Token#KEY}, advances past its value or over its whole subnode.
+     * Key/value pairs inside the skipped subnode are never queued nor copied.
+     */
+    public void skipChildren() {
+        if (token == Token.KEY) {
+            if (next() != Token.OBJECT_START) return;
+        }
+        if (token != Token.OBJECT_START) return;
+
+        int target = depth - 1;
+        // Go through the tokens already queued first
+        while (head != tail) {
+            if (next() == Token.OBJECT_END && depth == target) return;
+        }
+        // Then have the parser state drop everything until the end of the subnode, along with the ends of the
+        // subnodes it was still in, which the depth has to account for
+        state.skipTo = target;
+        if (next() != Token.OBJECT_END) {
+            throw new VDFParseException("Expected the end of subnode \"" + name + "\", found " + token + ".");
+        }
+        depth = target;
+    }
+
+    /**
+     * Closes the underlying reader, if any.
+     */
+    @Override
+    public void close() {
+        StreamUtils.closeQuietly(reader);
+    }
+
+    /**
+     * Tokenizes slices of the document until at least a token is queued.
+     */
+    private void fill() {
+        head = tail = 0;
+        texts.setLength(0);
+        try {
+            while (head == tail) {
+                if (ended) {
+                    enqueue(Token.END_DOCUMENT, null);
+                }
+                else if (source != null) {
+                    if (position < source.length()) {
+                        int end = Math.min(position + SLICE_SIZE, source.length());
+                        tokenizer.tokenize(source, position, end);
+                        position = end;
+                    }
+                    else {
+                        end();
+                    }
+                }
+                else if (position < limit) {
+                    int length = Math.min(SLICE_SIZE, limit - position);
+                    tokenizer.tokenize(buffer, position, length);
+                    position += length;
+                }
+                else {
+                    limit = reader.read(buffer, 0, buffer.length);
+                    position = 0;
+                    if (limit == -1) {
+                        limit = 0;
+                        close();
+                        end();
+                    }
+                }
+            }
+        }
+        catch (IOException e) {
+            throw new VDFParseException("Error reading VDF document.", e);
+        }
+    }
+
+    private void end() {
+        ended = true;
+        tokenizer.endTokenize();
+    }
+
+    private void enqueue(Token token, String name) {
+        if (tail == tokens.length) {
+            int capacity = tail << 1;
+            tokens = Arrays.copyOf(tokens, capacity);
+            names = Arrays.copyOf(names, capacity);
+            textEnds = Arrays.copyOf(textEnds, capacity);
+        }
+        tokens[tail] = token;
+        names[tail] = name;
+        textEnds[tail] = texts.length();
+        tail++;
+    }
+
+    /**
+     * Reads the value of the current key/value pair, advancing to it if the current token is its key.
+     * @return the value
+     */
+    private CharSequence readValue() {
+        if (token == Token.KEY) {
+            next();
+        }
+        return value();
+    }
+
+    /**
+     * Parser state that queues tokens instead of building nodes.
+     */
+    private final class ReaderState extends VDFParserState {
+        /** The amount of subnodes that began and haven't ended yet. */
+        private int depth;
+        /** The depth at which tokens are queued again while skipping a subnode, -1 when not skipping. */
+        int skipTo = -1;
+
+        @Override
+        void addValue(String name) {
+            if (skipTo >= 0) return;
+            enqueue(Token.KEY, name);
+            texts.append(string());
+            enqueue(Token.VALUE, null);
+        }
+
+        @Override
+        void pushSubNode(String name) {
+            depth++;
+            if (skipTo >= 0) return;
+            enqueue(Token.KEY, name);
+            enqueue(Token.OBJECT_START, null);
+        }
+
+        @Override
+        void popSubNode() {
+            if (depth == 0) {
+                throw new VDFParseException("The root node was popped. There was a subnode mismatch (misplaced '}'?).");
+            }
+            depth--;
+            if (skipTo >= 0) {
+                if (depth > skipTo) return;
+                skipTo = -1;
+            }
+            enqueue(Token.OBJECT_END, null);
+        }
+
+        @Override
+        boolean atRoot() {
+            return depth == 0;
+        }
+    }
+
+}
@@ -0,0 +1,63 @@
+/*
+Copyright 2023 Arete
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package it.aretesoftware.gdx.jvdf;
+
+/**
+ * A value of a {@link VDFNode} kept as a region of the parsed document, so no String is allocated for it until
+ * it's requested by {@link VDFNode#asString()}. Numbers and booleans are decoded straight from the region.
+ * @author BucketOfBroccoli */
+final class VDFSlice implements CharSequence {
+
+    private final String source;
+    private final int offset, length;
+
+    VDFSlice(String source, int offset, int length) {
+        this.source = source;
+        this.offset = offset;
+        this.length = length;
+    }
+
+    @Override
+    public int length() {
+        return length;
+    }
+
+    @Override
+    public char charAt(int index) {
+        if (index < 0 || index >= length) throw new IndexOutOfBoundsException("index: " + index + ", length: " + length);
+        return source.charAt(offset + index);
+    }
+
+    @Override
+    public CharSequence subSequence(int start, int end) {
+        if (start < 0 || end > length || start > end) throw new IndexOutOfBoundsException("start: " + start + ", end: " + end + ", length: " + length);
+        return new VDFSlice(source, offset + start, end - start);
+    }
+
+    /**
+     * @param other the String to compare this slice to
+     * @return whether this slice holds the same characters as the String, ignoring case */
+    boolean equalsIgnoreCase(String other) {
+        return other.length() == length && source.regionMatches(true, offset, other, 0, length);
+    }
+
+    @Override
+    public String toString() {
+        return source.substring(offset, offset + length);
+    }
+
+}
@@ -0,0 +1,141 @@
+/*
+Copyright 2023 Arete
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package it.aretesoftware.gdx.jvdf;
+
+import java.util.Arrays;
+
+/**
+ * Deduplicates the names, and optionally the short values, of parsed nodes. Documents tend to repeat the same few
+ * hundred names over and over, with a symbol table every occurrence shares a single String instead of allocating its
+ * own. Unlike {@link String#intern()}, symbols are looked up straight from the parser's buffer, so no String is
+ * allocated for names already seen, and they're released together with the table.
+ * <p>
+ * A table may be used for a single parse or shared between parses, see {@link VDFParser#setSymbolTable(VDFSymbolTable)},
+ * but it's not thread-safe.
+ * @author BucketOfBroccoli */
+public class VDFSymbolTable {
+
+    private final int maxValueLength;
+    private String[] symbols;
+    private int[] hashes;
+    private int size;
+
+    /**
+     * Initializes a symbol table that only deduplicates names.
+     */
+    public VDFSymbolTable() {
+        this(0);
+    }
+
+    /**
+     * Initializes a symbol table that deduplicates names, and values up to a length.
+     * @param maxValueLength the maximum length of the values to deduplicate, 0 to only deduplicate names
+     */
+    public VDFSymbolTable(int maxValueLength) {
+        this.maxValueLength = maxValueLength;
+        this.symbols = new String[256];
+        this.hashes = new int[256];
+    }
+
+    /**
+     * Returns the symbol with the same characters, adding it to the table if needed.
+     * @param chars the characters of the symbol
+     * @return the symbol, equal to chars.toString()
+     */
+    public String intern(CharSequence chars) {
+        int length = chars.length();
+        int hash = 0;
+        for (int i = 0; i < length; i++) {
+            hash = 31 * hash + chars.charAt(i);
+        }
+        int mask = symbols.length - 1;
+        for (int i = (hash ^ (hash >>> 16)) & mask; ; i = (i + 1) & mask) {
+            String symbol = symbols[i];
+            if (symbol == null) {
+                symbol = chars.toString();
+                symbols[i] = symbol;
+                hashes[i] = hash;
+                if (++size > symbols.length >> 1) {
+                    resize(symbols.length << 1);
+                }
+                return symbol;
+            }
+            if (hashes[i] == hash && contentEquals(symbol, chars, length)) {
+                return symbol;
+            }
+        }
+    }
+
+    /**
+     * Returns the symbol with the same characters if the value is short enough to be deduplicated, adding it to the
+     * table if needed.
+     * @param chars the characters of the value
+     * @return the symbol, or null if the value is too long
+     */
+    public String internValue(CharSequence chars) {
+        return chars.length() <= maxValueLength ? intern(chars) : null;
+    }
+
+    /**
+     * @return the number of symbols in this table
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return a new empty symbol table, deduplicating the same values as this one
+     */
+    VDFSymbolTable newTable() {
+        return new VDFSymbolTable(maxValueLength);
+    }
+
+    /**
+     * Removes all the symbols from this table.
+     */
+    public void clear() {
+        Arrays.fill(symbols, null);
+        size = 0;
+    }
+
+    private void resize(int capacity) {
+        String[] oldSymbols = symbols;
+        int[] oldHashes = hashes;
+        symbols = new String[capacity];
+        hashes = new int[capacity];
+        int mask = capacity - 1;
+        for (int j = 0; j < oldSymbols.length; j++) {
+            if (oldSymbols[j] == null) continue;
+            int hash = oldHashes[j];
+            int i = (hash ^ (hash >>> 16)) & mask;
+            while (symbols[i] != null) {
+                i = (i + 1) & mask;
+            }
+            symbols[i] = oldSymbols[j];
+            hashes[i] = hash;
+        }
+    }
+
+    private static boolean contentEquals(String symbol, CharSequence chars, int length) {
+        if (symbol.length() != length) return false;
+        for (int i = 0; i < length; i++) {
+            if (symbol.charAt(i) != chars.charAt(i)) return false;
+        }
+        return true;
+    }
+
+}
@@ -0,0 +1,546 @@
+/*
+Copyright 2023 Arete
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package it.aretesoftware.gdx.jvdf;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Single-pass tokenizer that strips comments, conditionals and unnecessary whitespaces while feeding the remaining
+ * characters straight into a {@link VDFParserState}. It applies the same rules as {@link VDFPreprocessor}, but it
+ * never splits the document into lines nor builds a minified copy of it, so the original characters are read once.
+ * <p>
+ * Input may be supplied in any number of chunks, the tokenizer keeps its state between calls to
+ * {@link #tokenize(char[], int, int)}. Call {@link #endTokenize()} once the whole document has been supplied.
+ * <p>
+ * By default every line is handled on its own, like {@link VDFPreprocessor} does. In {@link #setMultiLine(boolean)
+ * multi-line} mode, {@code /* ... *}{@code /} comments may span lines and quoted strings are kept as they are, line
+ * breaks included.
+ * @author BucketOfBroccoli */
+public class VDFTokenizer {
+
+    static final int BUFFER_SIZE = 8192;
+    private static final char REPLACEMENT = '\uFFFD';
+
+    private final VDFParserState state;
+
+    /**
+     * Scratch buffer used when tokenizing a String. Allocated on first use.
+     */
+    private char[] buffer;
+
+    /**
+     * This flag represents if the line currently has unclosed quotes. Just like in {@link VDFPreprocessor}, this is
+     * tracked per line and it's only used to tell comments and conditionals apart from quoted text.
+     */
+    private boolean lineQuotes = false;
+
+    /**
+     * This flag represents if the rest of the current line is a comment or a conditional and must be discarded.
+     */
+    private boolean skipLine = false;
+
+    /**
+     * This flag represents if the previous character was a '/' that may start a comment.
+     */
+    private boolean slashPending = false;
+
+    /**
+     * This flag represents if one or more whitespaces were found since the last character sent to the parser state.
+     */
+    private boolean spacePending = false;
+
+    /**
+     * This flag represents if any character was sent to the parser state.
+     */
+    private boolean hitWord = false;
+
+    /**
+     * This flag represents if block comments and quoted strings may span lines.
+     */
+    private boolean multiLine = false;
+
+    /**
+     * This flag represents if the parser state is inside a quoted string. Unlike {@link #lineQuotes}, this follows
+     * escapes exactly like the parser state does, and it's only used in multi-line mode.
+     */
+    private boolean quoted = false;
+
+    /**
+     * This flag represents if the parser state has an escape pending.
+     */
+    private boolean escaped = false;
+
+    /**
+     * This flag represents if the tokenizer is inside a block comment, in multi-line mode.
+     */
+    private boolean blockComment = false;
+
+    /**
+     * This flag represents if the previous character of a block comment was a '*' that may end it.
+     */
+    private boolean starPending = false;
+
+    /**
+     * The previous character of the current line, or 0 at the beginning of a line.
+     */
+    private char previous = 0;
+
+    /**
+     * The amount of characters tokenized so far.
+     */
+    private long consumed = 0;
+
+    /**
+     * The position in the input of the last character sent to the parser state, counting from the first character
+     * ever tokenized. Delayed whitespaces and slashes aren't tracked, braces and quotes always are.
+     */
+    private long position = 0;
+
+    /**
+     * The bits decoded so far of a UTF-8 sequence split between calls to {@link #tokenize(ByteBuffer)}.
+     */
+    private int codePoint = 0;
+
+    /**
+     * The amount of continuation bytes still missing from the current UTF-8 sequence.
+     */
+    private int continuation = 0;
+
+    /**
+     * The lowest code point the current UTF-8 sequence may encode, anything lower being an overlong form.
+     */
+    private int minimum = 0;
+
+    /**
+     * Initializes the tokenizer.
+     * @param state the parser state to feed with tokenized characters
+     */
+    public VDFTokenizer(VDFParserState state) {
+        this.state = state;
+    }
+
+    /**
+     * Initializes the tokenizer with a scratch buffer, so it can be shared by short-lived tokenizers.
+     * @param state the parser state to feed with tokenized characters
+     * @param buffer the scratch buffer, at least {@link #BUFFER_SIZE} characters long
+     */
+    VDFTokenizer(VDFParserState state, char[] buffer) {
+        this.state = state;
+        this.buffer = buffer;
+    }
+
+    /**
+     * Returns the parser state this tokenizer is feeding.
+     * @return the {@link VDFParserState} of this tokenizer
+     */
+    public VDFParserState state() {
+        return state;
+    }
+
+    /**
+     * Returns the position in the input of the last character sent to the parser state, meant to be called by the
+     * parser state while it's handling said character.
+     * @return the position of the character, counting from the first character ever tokenized
+     */
+    long position() {
+        return position;
+    }
+
+    /**
+     * Returns whether the current line has unclosed quotes, which tells comments and conditionals apart from quoted text
+     * for the rest of the line.
+     * @return if the current line has unclosed quotes
+     */
+    boolean isLineQuoted() {
+        return lineQuotes;
+    }
+
+    /**
+     * Sets whether the current line has unclosed quotes, to resume tokenizing a document in the middle of a line.
+     * @param lineQuotes if the current line has unclosed quotes
+     */
+    void setLineQuoted(boolean lineQuotes) {
+        this.lineQuotes = lineQuotes;
+    }
+
+    /**
+     * Jumps over the contents of a subnode whose opening brace was just sent to the parser state, leaving the tokenizer
+     * as it is right after sending the closing brace. The closing brace itself isn't sent, the parser state has to
+     * handle it.
+     * @param length the amount of characters to jump over, closing brace included
+     * @param lineQuotes if the line of the closing brace has unclosed quotes after it
+     */
+    void skipSubNode(int length, boolean lineQuotes) {
+        consumed += length;
+        position = consumed - 1;
+        this.lineQuotes = lineQuotes;
+        previous = '}';
+        hitWord = true;
+        spacePending = false;
+        slashPending = false;
+        skipLine = false;
+        quoted = false;
+        escaped = false;
+        blockComment = false;
+        starPending = false;
+    }
+
+    /**
+     * Returns whether block comments and quoted strings may span lines.
+     * @return if the tokenizer is in multi-line mode
+     */
+    public boolean isMultiLine() {
+        return multiLine;
+    }
+
+    /**
+     * Sets whether block comments and quoted strings may span lines, false by default. In multi-line mode a
+     * {@code /*} comment lasts until the next {@code *}{@code /}, and quoted strings are kept exactly as they are,
+     * whitespaces and line breaks included, while comments and conditionals are only recognized outside of them.
+     * Must be set before tokenizing.
+     * @param multiLine if the tokenizer is in multi-line mode
+     */
+    public void setMultiLine(boolean multiLine) {
+        this.multiLine = multiLine;
+    }
+
+    /**
+     * Tokenizes a VDF document, or a part of it.
+     * @param vdf the characters to tokenize
+     */
+    public void tokenize(String vdf) {
+        tokenize(vdf, 0, vdf.length());
+    }
+
+    /**
+     * Tokenizes a region of a VDF document.
+     * @param vdf the characters to tokenize
+     * @param start the index of the first character to tokenize
+     * @param end the index after the last character to tokenize
+     */
+    public void tokenize(String vdf, int start, int end) {
+        char[] buffer = buffer();
+        for (; start < end; start += BUFFER_SIZE) {
+            int chunkEnd = Math.min(start + BUFFER_SIZE, end);
+            vdf.getChars(start, chunkEnd, buffer, 0);
+            tokenize(buffer, 0, chunkEnd - start);
+        }
+    }
+
+    /**
+     * Tokenizes a UTF-8 encoded VDF document, or a part of it, from its position to its limit. ASCII bytes are
+     * widened straight into characters, other sequences are decoded by hand, so the buffer may as well be a
+     * {@link java.nio.MappedByteBuffer} and it's never copied as a whole. Sequences may be split between calls,
+     * malformed ones are replaced by U+FFFD. The position of the buffer is moved to its limit.
+     * @param utf8 the buffer holding the bytes to tokenize
+     */
+    public void tokenize(ByteBuffer utf8) {
+        char[] buffer = buffer();
+        int length = 0;
+        for (int i = utf8.position(), limit = utf8.limit(); i < limit; i++) {
+            // Leave room for a surrogate pair
+            if (length >= BUFFER_SIZE - 1) {
+                tokenize(buffer, 0, length);
+                length = 0;
+            }
+            byte b = utf8.get(i);
+            if (continuation == 0) {
+                if (b >= 0) {
+                    buffer[length++] = (char) b;
+                }
+                else if ((b & 0xE0) == 0xC0) {
+                    codePoint = b & 0x1F;
+                    continuation = 1;
+                    minimum = 0x80;
+                }
+                else if ((b & 0xF0) == 0xE0) {
+                    codePoint = b & 0x0F;
+                    continuation = 2;
+                    minimum = 0x800;
+                }
+                else if ((b & 0xF8) == 0xF0) {
+                    codePoint = b & 0x07;
+                    continuation = 3;
+                    minimum = 0x10000;
+                }
+                else {
+                    buffer[length++] = REPLACEMENT;
+                }
+            }
+            else if ((b & 0xC0) == 0x80) {
+                codePoint = (codePoint << 6) | (b & 0x3F);
+                if (--continuation == 0) {
+                    // Overlong forms and encoded surrogates are malformed, as in the String and Reader entry points
+                    if (codePoint < minimum
+                            || (codePoint >= Character.MIN_SURROGATE && codePoint <= Character.MAX_SURROGATE)) {
+                        buffer[length++] = REPLACEMENT;
+                    }
+                    else if (Character.isBmpCodePoint(codePoint)) {
+                        buffer[length++] = (char) codePoint;
+                    }
+                    else if (Character.isValidCodePoint(codePoint)) {
+                        buffer[length++] = Character.highSurrogate(codePoint);
+                        buffer[length++] = Character.lowSurrogate(codePoint);
+                    }
+                    else {
+                        buffer[length++] = REPLACEMENT;
+                    }
+                }
+            }
+            else {
+                // The sequence was cut short, replace it and decode this byte again
+                continuation = 0;
+                buffer[length++] = REPLACEMENT;
+                i--;
+            }
+        }
+        tokenize(buffer, 0, length);
+        utf8.position(utf8.limit());
+    }
+
+    /**
+     * Tokenizes a VDF document, or a part of it.
+     * @param chars the array holding the characters to tokenize
+     * @param offset the index of the first character to tokenize
+     * @param length the amount of characters to tokenize
+     */
+    public void tokenize(char[] chars, int offset, int length) {
+        if (multiLine) {
+            tokenizeMultiLine(chars, offset, length);
+            return;
+        }
+        long base = consumed - offset;
+        consumed += length;
+        for (int i = offset, end = offset + length; i < end; i++) {
+            char c = chars[i];
+            char p = previous;
+            previous = c;
+
+            if (c == '\n') {
+                newLine();
+                continue;
+            }
+
+            // Discard the rest of a comment or conditional
+            if (skipLine || c == '\r')
+                continue;
+
+            // A single '/' is not a comment, send it to the parser after all
+            if (slashPending) {
+                slashPending = false;
+                if (c == '/' || c == '*') {
+                    skipLine = true;
+                    continue;
+                }
+                emit('/');
+            }
+
+            // Toggle open quote flag if we've encountered an unescaped quote
+            if (c == '"' && p != '\\')
+                lineQuotes = !lineQuotes;
+
+            if (!lineQuotes) {
+                // Could be the start of a comment, wait for the next character
+                if (c == '/') {
+                    slashPending = true;
+                    continue;
+                }
+
+                // Strip conditional statement
+                if (c == '[') {
+                    skipLine = true;
+                    continue;
+                }
+            }
+
+            // Collapse whitespaces into a single space
+            if (isWhitespace(c)) {
+                spacePending = hitWord;
+                continue;
+            }
+
+            position = base + i;
+            emit(c);
+        }
+    }
+
+    /**
+     * Tokenizes a part of a VDF document in multi-line mode.
+     * @param chars the array holding the characters to tokenize
+     * @param offset the index of the first character to tokenize
+     * @param length the amount of characters to tokenize
+     */
+    private void tokenizeMultiLine(char[] chars, int offset, int length) {
+        long base = consumed - offset;
+        consumed += length;
+        for (int i = offset, end = offset + length; i < end; i++) {
+            char c = chars[i];
+
+            // Discard the comment up to its end, which separates words just like a whitespace
+            if (blockComment) {
+                if (starPending && c == '/') {
+                    blockComment = false;
+                    spacePending = hitWord;
+                }
+                starPending = c == '*';
+                continue;
+            }
+
+            if (c == '\n') {
+                if (slashPending) {
+                    slashPending = false;
+                    emit('/');
+                }
+                skipLine = false;
+                if (quoted) {
+                    position = base + i;
+                    emit(c);
+                }
+                else {
+                    spacePending = hitWord;
+                }
+                continue;
+            }
+
+            // Discard the rest of a line comment or conditional
+            if (skipLine || c == '\r')
+                continue;
+
+            // A single '/' is not a comment, send it to the parser after all
+            if (slashPending) {
+                slashPending = false;
+                if (c == '/') {
+                    skipLine = true;
+                    continue;
+                }
+                if (c == '*') {
+                    blockComment = true;
+                    starPending = false;
+                    continue;
+                }
+                emit('/');
+            }
+
+            // Quoted strings are sent as they are
+            if (!quoted) {
+                if (c == '/') {
+                    slashPending = true;
+                    continue;
+                }
+                if (c == '[') {
+                    skipLine = true;
+                    continue;
+                }
+                if (isWhitespace(c)) {
+                    spacePending = hitWord;
+                    continue;
+                }
+            }
+
+            position = base + i;
+            emit(c);
+        }
+    }
+
+    /**
+     * Finalizes the tokenizer and its parser state. Called at the end of the document.
+     */
+    public void endTokenize() {
+        if (continuation != 0) {
+            continuation = 0;
+            tokenize(new char[] { REPLACEMENT }, 0, 1);
+        }
+        if (slashPending) {
+            slashPending = false;
+            emit('/');
+        }
+        state.endParse();
+    }
+
+    /**
+     * Returns the scratch buffer, allocating it on first use.
+     * @return the scratch buffer
+     */
+    private char[] buffer() {
+        char[] buffer = this.buffer;
+        if (buffer == null) {
+            buffer = this.buffer = new char[BUFFER_SIZE];
+        }
+        return buffer;
+    }
+
+    /**
+     * Handles the end of a line.
+     */
+    private void newLine() {
+        if (slashPending) {
+            slashPending = false;
+            emit('/');
+        }
+        spacePending = hitWord;
+        lineQuotes = false;
+        skipLine = false;
+        previous = 0;
+    }
+
+    /**
+     * Sends a character to the parser state, preceded by a space if whitespaces were found before it.
+     * @param c the character to send
+     */
+    private void emit(char c) {
+        if (spacePending) {
+            spacePending = false;
+            if (quoted) escaped = false;
+            state.space();
+        }
+        hitWord = true;
+        switch (c) {
+            case '"':
+                if (escaped) escaped = false;
+                else quoted = !quoted;
+                state.quote();
+                break;
+            case '\\':
+                escaped = !escaped;
+                state.escape();
+                break;
+            case '{':
+                escaped = false;
+                state.beginSubNode();
+                break;
+            case '}':
+                escaped = false;
+                state.endSubNode();
+                break;
+            default:
+                escaped = false;
+                state.character(c);
+                break;
+        }
+    }
+
+    /**
+     * Determines whether or not a character is considered a VDF whitespace character. Newlines and returns are
+     * handled separately.
+     * @param c the character to test
+     * @return if the character is considered VDF whitespace character
+     */
+    private boolean isWhitespace(char c) {
+        return c == ' ' || c == '\t' || c == 0x0B;
+    }
+
+}
@@ -29,31 +29,61 @@ import it.aretesoftware.utils.StringUtils;
  * @author BucketOfBroccoli */
 public class VDFUtils {
 
-    private static final String WHITESPACE_REGEX = "[ \\t\\n]+";
-    private static final String TRAILLESS_NUMBER_REGEX = "^(\\+|-)?([0-9])*\\.?([0-9]+)?(f|F)?$";
+    private static final int VALID = 0, NULL_OR_EMPTY = 1, WRONG_LENGTH = 2, NOT_NUMERIC = 3;
+    /** Powers of ten which are exactly representable as floats. */
+    private static final float[] FLOAT_POWERS_OF_TEN = {1e0f, 1e1f, 1e2f, 1e3f, 1e4f, 1e5f, 1e6f, 1e7f, 1e8f, 1e9f, 1e10f};
+    /** The same powers of ten, as longs. */
+    private static final long[] LONG_POWERS_OF_TEN = {1L, 10L, 100L, 1000L, 10000L, 100000L, 1000000L, 10000000L,
+            100000000L, 1000000000L, 10000000000L};
 
     private VDFUtils() {
 
     }
 
+    /**
+     * Converts a value to the object it represents, classifying it in a single pass:
+     * a {@link Color}, {@link Vector3} or {@link Vector2} for four, three or two numbers separated by whitespaces,
+     * a Boolean, a Number, or the value itself if it's none of them.
+     * @param value to convert, may be null
+     * @return the converted value */
     public static Object toObject(String value) {
-        if (isColor(value)) {
-            return toColor(value);
+        if (StringUtils.isNullOrEmpty(value)) {
+            return value;
         }
-        else if (isVector3(value)) {
-            return toVector3(value);
+        int start = trimStart(value), end = trimEnd(value);
+        int count = 0;
+        boolean numeric = true;
+        for (int i = start; i < end; i = nextComponent(value, i, end)) {
+            int next = componentEnd(value, i, end);
+            numeric &= isNumber(value, i, next);
+            i = next;
+            count++;
         }
-        else if (isVector2(value)) {
-            return toVector2(value);
+        if (numeric) {
+            switch (count) {
+                case 4:
+                    return scanColor(value, start, end, new Color());
+                case 3:
+                    return scanVector3(value, start, end, new Vector3());
+                case 2:
+                    return scanVector2(value, start, end, new Vector2());
+            }
         }
-        else if (isBoolean(value)) {
-            return toBoolean(value);
+        if (count != 1) {
+            return value;
         }
-        else {
-            if (NumberUtils.isNumber(value)) {
-                return NumberUtils.toNumber(value);
+        if (isBoolean(value, start, end)) {
+            return value.regionMatches(true, start, "true", 0, 4);
+        }
+        if (numeric && start == 0 && end == value.length()) {
+            Number number = toSimpleNumber(value);
+            if (number != null) {
+                return number;
             }
         }
+        if (NumberUtils.isNumber(value)) {
+            return NumberUtils.toNumber(value);
+        }
         return value;
     }
 
@@ -79,8 +109,7 @@ public class VDFUtils {
         if (StringUtils.isNullOrEmpty(value)) {
             return false;
         }
-        value = value.trim();
-        return value.equalsIgnoreCase("true") || value.equalsIgnoreCase("false");
+        return isBoolean(value, trimStart(value), trimEnd(value));
     }
 
     public static boolean toBoolean(String value, boolean defaultValue) {
@@ -117,15 +146,33 @@ public class VDFUtils {
     }
 
     public static Color toColor(String value) {
-        value = value.trim();
-        String[] split = checkStringData(value, 4,
-                "'" + value + "' does not have the four RGBA values that make up a Color.",
-                "One of the RGBA values in '" + value + "' is not a number.");
-        float r = Float.parseFloat(split[0]);
-        float g = Float.parseFloat(split[1]);
-        float b = Float.parseFloat(split[2]);
-        float a = Float.parseFloat(split[3]);
-        return new Color(r, g, b, a);
+        return parseColor(value, new Color());
+    }
+
+    /**
+     * Parses a value into an existing {@link Color}, without allocating.
+     * @param value the four RGBA values, separated by whitespaces
+     * @param out the {@link Color} to set
+     * @return out, for chaining
+     * @throws VDFUtilsException if the value is not a valid Color */
+    public static Color parseColor(String value, Color out) {
+        checkStringData(value, 4,
+                "does not have the four RGBA values that make up a Color.",
+                "One of the RGBA values in '%s' is not a number.");
+        return scanColor(value, trimStart(value), trimEnd(value), out);
+    }
+
+    /** Scans a value checked by {@link #validateComponents(String, int)} into an existing {@link Color}. */
+    private static Color scanColor(String value, int start, int end, Color out) {
+        int next = componentEnd(value, start, end);
+        float r = parseFloat(value, start, next);
+        next = componentEnd(value, start = nextComponent(value, next, end), end);
+        float g = parseFloat(value, start, next);
+        next = componentEnd(value, start = nextComponent(value, next, end), end);
+        float b = parseFloat(value, start, next);
+        next = componentEnd(value, start = nextComponent(value, next, end), end);
+        float a = parseFloat(value, start, next);
+        return out.set(r, g, b, a);
     }
 
     public static String toColorString(Color color) {
@@ -133,15 +180,16 @@ public class VDFUtils {
     }
 
     public static String toColorString(float r, float g, float b, float a) {
-        StringBuilder builder = new StringBuilder();
-        builder.append(r);
-        builder.append(" ");
-        builder.append(g);
-        builder.append(" ");
-        builder.append(b);
-        builder.append(" ");
-        builder.append(a);
-        return builder.toString();
+        return appendColor(new StringBuilder(32), r, g, b, a).toString();
+    }
+
+    /** Appends the components of a {@link Color} separated by spaces, see {@link #appendFloat(StringBuilder, float)}. */
+    static StringBuilder appendColor(StringBuilder builder, float r, float g, float b, float a) {
+        appendFloat(builder, r).append(' ');
+        appendFloat(builder, g).append(' ');
+        appendFloat(builder, b).append(' ');
+        appendFloat(builder, a);
+        return builder;
     }
 
     public static boolean isVector3(String value) {
@@ -153,14 +201,31 @@ public class VDFUtils {
     }
 
     public static Vector3 toVector3(String value) {
-        value = value.trim();
-        String[] split = checkStringData(value, 3,
-                "'" + value + "' does not have the three XYZ values that make up a Vector3.",
-                "One of the XYZ values in '" + value + "' is not a number.");
-        float x = Float.parseFloat(split[0]);
-        float y = Float.parseFloat(split[1]);
-        float z = Float.parseFloat(split[2]);
-        return new Vector3(x, y, z);
+        return parseVector3(value, new Vector3());
+    }
+
+    /**
+     * Parses a value into an existing {@link Vector3}, without allocating.
+     * @param value the three XYZ values, separated by whitespaces
+     * @param out the {@link Vector3} to set
+     * @return out, for chaining
+     * @throws VDFUtilsException if the value is not a valid Vector3 */
+    public static Vector3 parseVector3(String value, Vector3 out) {
+        checkStringData(value, 3,
+                "does not have the three XYZ values that make up a Vector3.",
+                "One of the XYZ values in '%s' is not a number.");
+        return scanVector3(value, trimStart(value), trimEnd(value), out);
+    }
+
+    /** Scans a value checked by {@link #validateComponents(String, int)} into an existing {@link Vector3}. */
+    private static Vector3 scanVector3(String value, int start, int end, Vector3 out) {
+        int next = componentEnd(value, start, end);
+        float x = parseFloat(value, start, next);
+        next = componentEnd(value, start = nextComponent(value, next, end), end);
+        float y = parseFloat(value, start, next);
+        next = componentEnd(value, start = nextComponent(value, next, end), end);
+        float z = parseFloat(value, start, next);
+        return out.set(x, y, z);
     }
 
     public static String toVector3String(Vector3 vec3) {
@@ -168,13 +233,15 @@ public class VDFUtils {
     }
 
     public static String toVector3String(float x, float y, float z) {
-        StringBuilder builder = new StringBuilder();
-        builder.append(x);
-        builder.append(" ");
-        builder.append(y);
-        builder.append(" ");
-        builder.append(z);
-        return builder.toString();
+        return appendVector3(new StringBuilder(24), x, y, z).toString();
+    }
+
+    /** Appends the components of a {@link Vector3} separated by spaces, see {@link #appendFloat(StringBuilder, float)}. */
+    static StringBuilder appendVector3(StringBuilder builder, float x, float y, float z) {
+        appendFloat(builder, x).append(' ');
+        appendFloat(builder, y).append(' ');
+        appendFloat(builder, z);
+        return builder;
     }
 
     public static boolean isVector2(String value) {
@@ -186,13 +253,29 @@ public class VDFUtils {
     }
 
     public static Vector2 toVector2(String value) {
-        value = value.trim();
-        String[] split = checkStringData(value, 2,
-                "'" + value + "' does not have the two XY values that make up a Vector2.",
-                "One of the XY values in '" + value + "' is not a number.");
-        float x = Float.parseFloat(split[0]);
-        float y = Float.parseFloat(split[1]);
-        return new Vector2(x, y);
+        return parseVector2(value, new Vector2());
+    }
+
+    /**
+     * Parses a value into an existing {@link Vector2}, without allocating.
+     * @param value the two XY values, separated by whitespaces
+     * @param out the {@link Vector2} to set
+     * @return out, for chaining
+     * @throws VDFUtilsException if the value is not a valid Vector2 */
+    public static Vector2 parseVector2(String value, Vector2 out) {
+        checkStringData(value, 2,
+                "does not have the two XY values that make up a Vector2.",
+                "One of the XY values in '%s' is not a number.");
+        return scanVector2(value, trimStart(value), trimEnd(value), out);
+    }
+
+    /** Scans a value checked by {@link #validateComponents(String, int)} into an existing {@link Vector2}. */
+    private static Vector2 scanVector2(String value, int start, int end, Vector2 out) {
+        int next = componentEnd(value, start, end);
+        float x = parseFloat(value, start, next);
+        next = componentEnd(value, start = nextComponent(value, next, end), end);
+        float y = parseFloat(value, start, next);
+        return out.set(x, y);
     }
 
     public static String toVector2String(Vector2 vec2) {
@@ -200,11 +283,14 @@ public class VDFUtils {
     }
 
     public static String toVector2String(float x, float y) {
-        StringBuilder builder = new StringBuilder();
-        builder.append(x);
-        builder.append(" ");
-        builder.append(y);
-        return builder.toString();
+        return appendVector2(new StringBuilder(16), x, y).toString();
+    }
+
+    /** Appends the components of a {@link Vector2} separated by spaces, see {@link #appendFloat(StringBuilder, float)}. */
+    static StringBuilder appendVector2(StringBuilder builder, float x, float y) {
+        appendFloat(builder, x).append(' ');
+        appendFloat(builder, y);
+        return builder;
     }
 
     public static <T extends Enum<T>> T toEnum(String value, T defaultValue) {
@@ -226,35 +312,255 @@ public class VDFUtils {
     }
 
     private static boolean isStringDataValid(String value, int arrayLengthAllowed) {
+        return validateComponents(value, arrayLengthAllowed) == VALID;
+    }
+
+    private static void checkStringData(String value, int arrayLengthAllowed, String arrayLengthErrorMessage, String notNumericErrorMessage) throws VDFUtilsException {
+        switch (validateComponents(value, arrayLengthAllowed)) {
+            case NULL_OR_EMPTY:
+                throw new VDFUtilsException("Value is null or empty.");
+            case WRONG_LENGTH:
+                throw new VDFUtilsException("'" + value.trim() + "' " + arrayLengthErrorMessage);
+            case NOT_NUMERIC:
+                throw new VDFUtilsException(String.format(notNumericErrorMessage, value.trim()));
+        }
+    }
+
+    /**
+     * Checks that a value is made of the specified amount of whitespace separated numbers, in a single pass.
+     * @return {@link #VALID}, {@link #NULL_OR_EMPTY}, {@link #WRONG_LENGTH} or {@link #NOT_NUMERIC} */
+    private static int validateComponents(String value, int arrayLengthAllowed) {
         if (StringUtils.isNullOrEmpty(value)) {
-            return false;
+            return NULL_OR_EMPTY;
         }
-        String[] split = value.trim().split(WHITESPACE_REGEX);
-        if (split.length != arrayLengthAllowed) {
-            return false;
+        int end = trimEnd(value);
+        int count = 0;
+        boolean numeric = true;
+        for (int start = trimStart(value); start < end; start = nextComponent(value, start, end)) {
+            int next = componentEnd(value, start, end);
+            numeric &= isNumber(value, start, next);
+            start = next;
+            count++;
+        }
+        if (count != arrayLengthAllowed) {
+            return WRONG_LENGTH;
+        }
+        return numeric ? VALID : NOT_NUMERIC;
+    }
+
+    private static boolean isBoolean(String value, int start, int end) {
+        int length = end - start;
+        return (length == 4 && value.regionMatches(true, start, "true", 0, 4))
+                || (length == 5 && value.regionMatches(true, start, "false", 0, 5));
+    }
+
+    /**
+     * Converts the common cases of a number checked by {@link #isNumber(String, int, int)} without going through
+     * {@link NumberUtils}: integers of up to nine digits without leading zeros, and decimals of up to seven digits with
+     * digits on both sides of the decimal point.
+     * @return an Integer, a Float, or null if the number is not one of the common cases */
+    private static Number toSimpleNumber(String value) {
+        int length = value.length();
+        int start = value.charAt(0) == '-' ? 1 : 0;
+        int point = -1, digits = 0;
+        for (int i = start; i < length; i++) {
+            char c = value.charAt(i);
+            if (c == '.') point = i;
+            else if (c >= '0' && c <= '9') digits++;
+            else if (i != length - 1) return null;
+        }
+        boolean suffix = digits + (point != -1 ? 1 : 0) + start != length;
+        if (point == -1) {
+            if (suffix || digits > 9 || (digits > 1 && value.charAt(start) == '0')) return null;
+            return Integer.valueOf(Integer.parseInt(value));
+        }
+        if (digits > 7 || point == start || point == length - (suffix ? 2 : 1)) return null;
+        return Float.valueOf(parseFloat(value, 0, length));
+    }
+
+    /** @return the index after the last character of the value which is not a whitespace, like {@link String#trim()} */
+    private static int trimEnd(String value) {
+        int end = value.length();
+        while (end > 0 && value.charAt(end - 1) <= ' ') {
+            end--;
+        }
+        return end;
+    }
+
+    /** @return the index of the first character which is not a whitespace, like {@link String#trim()} */
+    private static int trimStart(String value) {
+        int start = 0;
+        while (start < value.length() && value.charAt(start) <= ' ') {
+            start++;
+        }
+        return start;
+    }
+
+    /** @return the index of the first character from index which is not a separator, or end */
+    private static int nextComponent(String value, int index, int end) {
+        while (index < end && isSeparator(value.charAt(index))) {
+            index++;
         }
-        for (String number : split) {
-            if (!number.matches(TRAILLESS_NUMBER_REGEX)) {
-                return false;
+        return index;
+    }
+
+    /** @return the index of the first separator from index, or end */
+    private static int componentEnd(String value, int index, int end) {
+        while (index < end && !isSeparator(value.charAt(index))) {
+            index++;
+        }
+        return index;
+    }
+
+    private static boolean isSeparator(char c) {
+        return c == ' ' || c == '\t' || c == '\n';
+    }
+
+    /**
+     * Checks that the characters between start and end form a decimal number: an optional sign, digits with an optional
+     * decimal point and an optional 'f' suffix. At least one digit is required.
+     * @return whether the characters form a number */
+    private static boolean isNumber(CharSequence value, int start, int end) {
+        int i = start;
+        if (i < end && (value.charAt(i) == '+' || value.charAt(i) == '-')) i++;
+        boolean digits = false, point = false;
+        for (; i < end; i++) {
+            char c = value.charAt(i);
+            if (c >= '0' && c <= '9') {
+                digits = true;
             }
+            else if (c == '.' && !point) {
+                point = true;
+            }
+            else break;
         }
-        return true;
+        if (i < end && (value.charAt(i) == 'f' || value.charAt(i) == 'F')) i++;
+        return digits && i == end;
     }
 
-    private static String[] checkStringData(String value, int arrayLengthAllowed, String arrayLengthErrorMessage, String notNumericErrorMessage) throws VDFUtilsException {
-        if (StringUtils.isNullOrEmpty(value)) {
-            throw new VDFUtilsException("Value is null or empty.");
+    /**
+     * Parses a number checked by {@link #isNumber(CharSequence, int, int)}. Numbers with few enough digits are computed
+     * directly, with the same result as {@link Float#parseFloat(String)}, the rest fall back to it.
+     * @return the number as a float */
+    private static float parseFloat(CharSequence value, int start, int end) {
+        int i = start;
+        boolean negative = false;
+        char c = value.charAt(i);
+        if (c == '+' || c == '-') {
+            negative = c == '-';
+            i++;
         }
-        String[] split = value.trim().split(WHITESPACE_REGEX);
-        if (split.length != arrayLengthAllowed) {
-            throw new VDFUtilsException(arrayLengthErrorMessage);
+        int mantissa = 0, decimals = 0;
+        boolean point = false;
+        for (; i < end; i++) {
+            c = value.charAt(i);
+            if (c == '.') {
+                point = true;
+                continue;
+            }
+            if (c < '0' || c > '9') break;
+            mantissa = mantissa * 10 + (c - '0');
+            if (point) decimals++;
+            // Past 2^24 the mantissa is no longer exact as a float
+            if (mantissa > 1 << 24 || decimals >= FLOAT_POWERS_OF_TEN.length) {
+                return Float.parseFloat(value.subSequence(start, end).toString());
+            }
         }
-        for (String number : split) {
-            if (!number.matches(TRAILLESS_NUMBER_REGEX)) {
-                throw new VDFUtilsException(notNumericErrorMessage);
+        float result = mantissa / FLOAT_POWERS_OF_TEN[decimals];
+        return negative ? -result : result;
+    }
+
+    /**
+     * Parses a float with the same result as {@link Float#parseFloat(String)}, without converting plain decimal numbers
+     * to a String first.
+     * @return the value as a float
+     * @throws NumberFormatException if the value is not a number */
+    static float toFloat(CharSequence value) {
+        int end = value.length();
+        return isNumber(value, 0, end)
+                ? parseFloat(value, 0, end)
+                : Float.parseFloat(value.toString());
+    }
+
+    /**
+     * Parses a long the same way {@link Long#parseLong(String)} does, without converting the value to a String.
+     * @return the value as a long
+     * @throws NumberFormatException if the value is not a number, or doesn't fit in a long */
+    static long toLong(CharSequence value) {
+        int length = value.length(), i = 0;
+        if (length == 0) throw new NumberFormatException("For input string: \"\"");
+        boolean negative = false;
+        long limit = -Long.MAX_VALUE;
+        char first = value.charAt(0);
+        if (first < '0') {
+            if (first == '-') {
+                negative = true;
+                limit = Long.MIN_VALUE;
+            }
+            else if (first != '+' || length == 1) {
+                throw new NumberFormatException("For input string: \"" + value + "\"");
             }
+            if (length == 1) throw new NumberFormatException("For input string: \"" + value + "\"");
+            i++;
         }
-        return split;
+        // Accumulate negatively, like Long.parseLong, so that Long.MIN_VALUE fits
+        long multiplyLimit = limit / 10, result = 0;
+        while (i < length) {
+            int digit = Character.digit(value.charAt(i++), 10);
+            if (digit < 0 || result < multiplyLimit) throw new NumberFormatException("For input string: \"" + value + "\"");
+            result *= 10;
+            if (result < limit + digit) throw new NumberFormatException("For input string: \"" + value + "\"");
+            result -= digit;
+        }
+        return negative ? result : -result;
+    }
+
+    /**
+     * Appends a float with as few digits as it takes to parse back to the same float, straight into a builder rather
+     * than through a String. Numbers written with an exponent or with more than seven significant digits by
+     * {@link Float#toString(float)} are left to {@link StringBuilder#append(float)}, which doesn't create a String either.
+     * @return the builder, for chaining */
+    static StringBuilder appendFloat(StringBuilder builder, float value) {
+        float abs = Math.abs(value);
+        if (abs >= 1e-3f && abs < 1e7f) {
+            // Find the fewest decimals whose nearest number parses back to the value. The mantissa and power of ten
+            // being exact floats, the division rounds exactly like parsing the number does
+            for (int decimals = 0; decimals < FLOAT_POWERS_OF_TEN.length; decimals++) {
+                long mantissa = (long) Math.rint(abs * (double) LONG_POWERS_OF_TEN[decimals]);
+                if (mantissa > 1 << 24) break;
+                if (mantissa / FLOAT_POWERS_OF_TEN[decimals] == abs) {
+                    if (value < 0) builder.append('-');
+                    long power = LONG_POWERS_OF_TEN[decimals];
+                    builder.append(mantissa / power).append('.');
+                    if (decimals == 0) {
+                        return builder.append('0');
+                    }
+                    long fraction = mantissa % power;
+                    for (long digit = power / 10; digit > fraction; digit /= 10) {
+                        builder.append('0');
+                    }
+                    return builder.append(fraction);
+                }
+            }
+        }
+        return builder.append(value);
+    }
+
+    /**
+     * Checks whether a token can be written without quotes and still be parsed back as it is, which is when it's not
+     * empty and holds neither whitespaces nor characters that mean something outside of quotes.
+     * @return whether the token can be written without quotes */
+    static boolean isUnquotable(CharSequence token) {
+        if (token == null || token.length() == 0) return false;
+        for (int i = 0, length = token.length(); i < length; i++) {
+            if (!isUnquotable(token.charAt(i))) return false;
+        }
+        return true;
+    }
+
+    /** @return whether a character can be part of a token written without quotes, see {@link #isUnquotable(CharSequence)} */
+    static boolean isUnquotable(char c) {
+        return c > ' ' && c != '"' && c != '\\' && c != '{' && c != '}' && c != '/' && c != '[';
     }
 
     static class VDFUtilsException extends GdxRuntimeException {
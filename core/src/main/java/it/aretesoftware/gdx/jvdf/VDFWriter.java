@@ -19,11 +19,21 @@ package it.aretesoftware.gdx.jvdf;
 import com.badlogic.gdx.graphics.Color;
 import com.badlogic.gdx.math.Vector2;
 import com.badlogic.gdx.math.Vector3;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.Charset;
 
 /**
- * Writes VDF documents into a {@link StringBuilder}.
+ * Writes VDF documents into a {@link StringBuilder}, or streams them to a {@link Writer} through a bounded buffer so
+ * documents of any size can be written in constant memory.
  * @author BucketOfBroccoli */
-public class VDFWriter {
+public class VDFWriter implements Closeable, Flushable {
 
     private static final String SPACE = " ";
     private static final String WHITESPACE = "    ";
@@ -32,55 +42,151 @@ public class VDFWriter {
     private static final String NODE_START = "{";
     private static final String NODE_END = "}";
 
+    /** The amount of buffered characters past which they're written to the output. */
+    static final int BUFFER_SIZE = 8192;
+
+    /**
+     * How a document is laid out.
+     */
+    public enum OutputType {
+        /** Indented, with every key/value pair and brace on its own line. */
+        PRETTY,
+        /** On a single line, without indentation nor separators between quoted tokens and braces. */
+        COMPACT,
+        /** Like {@link #COMPACT}, also leaving the quotes out of the tokens that can do without them. */
+        MINIMAL
+    }
+
     private final StringBuilder builder, whitespace;
+    private final Writer output;
+    private char[] chars;
+    private OutputType outputType = OutputType.PRETTY;
 
     public VDFWriter() {
         this.builder = new StringBuilder();
         this.whitespace = new StringBuilder();
+        this.output = null;
+    }
+
+    /**
+     * Initializes a writer that streams the document to a {@link Writer}, buffering at most about
+     * {@value #BUFFER_SIZE} characters at a time. {@link #close()} must be called once done, to write what's still
+     * buffered. {@link #toVDFString()} and {@link #toVDFNode()} are unavailable, as the document isn't kept.
+     * @param output the writer to write the document to
+     */
+    public VDFWriter(Writer output) {
+        if (output == null) throw new IllegalArgumentException("Output cannot be null.");
+        this.builder = new StringBuilder(BUFFER_SIZE * 2);
+        this.whitespace = new StringBuilder();
+        this.output = output;
+    }
+
+    /**
+     * Initializes a writer that streams the document to an {@link OutputStream}, see {@link #VDFWriter(Writer)}.
+     * @param output the stream to write the document to
+     * @param charset the charset to encode the document with
+     */
+    public VDFWriter(OutputStream output, Charset charset) {
+        this(new OutputStreamWriter(output, charset));
+    }
+
+
+    /**
+     * Sets how the document is laid out from now on. All output types are read back alike by {@link VDFParser}.
+     * @param outputType the output type, {@link OutputType#PRETTY} by default
+     * @return this {@link VDFWriter} for chaining */
+    public VDFWriter setOutputType(OutputType outputType) {
+        if (outputType == null) throw new IllegalArgumentException("Output type cannot be null.");
+        this.outputType = outputType;
+        return this;
     }
 
+    /**
+     * @return how the document is laid out */
+    public OutputType getOutputType() {
+        return outputType;
+    }
 
     /**
      * Writes the start of a {@link VDFNode}.
      * @param name the name of the newly started {@link VDFNode}
      * @return this {@link VDFWriter} for chaining */
     public VDFWriter writeNodeStart(String name) {
+        if (outputType != OutputType.PRETTY) {
+            appendToken(name).append(NODE_START);
+            return flushIfFull();
+        }
         builder.append(whitespace)
                 .append(QUOTES).append(name).append(QUOTES)
                 .append(NEWLINE)
                 .append(whitespace).append(NODE_START).append(NEWLINE);
         whitespace.append(WHITESPACE);
-        return this;
+        return flushIfFull();
     }
 
     /**
      * Writes the end of the previously started {@link VDFNode}.
      * @return this {@link VDFWriter} for chaining */
     public VDFWriter writeNodeEnd() {
+        if (outputType != OutputType.PRETTY) {
+            builder.append(NODE_END);
+            return flushIfFull();
+        }
         if (whitespace.length() >= 4) {
             whitespace.setLength(whitespace.length() - 4);
         }
         builder.append(whitespace).append(NODE_END).append(NEWLINE);
-        return this;
+        return flushIfFull();
     }
 
     /**
-     * Writes a node in the current {@link VDFNode}.
-     * Note that this uses the {@link VDFNode}'s toVDFString() output,
-     * meaning that the "prev" and "next" nodes will not be written.
+     * Writes a node in the current {@link VDFNode}, with all of its children, indented like the rest of the document.
+     * A node without a parent, such as the root of a parsed document, is written as its children.
+     * Note that the "prev" and "next" nodes will not be written.
      * @param node to write
      * @return this {@link VDFWriter} for chaining */
     public VDFWriter writeNode(VDFNode node) {
-        builder.append(whitespace)
-                .append(node.toVDFString())
-                .append(NEWLINE);
+        // Walk the tree through its links, the same way VDFNode#toVDFString(Appendable) does
+        VDFNode current = node.parent != null
+                ? node
+                : node.child();
+        int depth = 0;
+        while (current != null) {
+            if (current.isEmpty() && !current.isNull()) {
+                writeValue(current.name, current.rawValue());
+            }
+            else {
+                writeNodeStart(current.name);
+                VDFNode child = current.child();
+                if (child != null) {
+                    current = child;
+                    depth++;
+                    continue;
+                }
+                writeNodeEnd();
+            }
+            // Move on to the next sibling, ending the subnodes whose last child was just written
+            while (true) {
+                if (current == node) {
+                    return this;
+                }
+                if (current.next != null) {
+                    current = current.next;
+                    break;
+                }
+                if (depth == 0) {
+                    return this;
+                }
+                current = current.parent;
+                depth--;
+                writeNodeEnd();
+            }
+        }
         return this;
     }
 
     /**
-     * Writes multiple nodes in the current {@link VDFNode}.
-     * Note that this uses the {@link VDFNode}'s toVDFString() output,
-     * meaning that the "prev" and "next" nodes will not be written.
+     * Writes multiple nodes in the current {@link VDFNode}, see {@link #writeNode(VDFNode)}.
      * @param nodes to write
      * @return this {@link VDFWriter} for chaining */
     public VDFWriter writeNodes(VDFNode... nodes) {
@@ -96,12 +202,47 @@ public class VDFWriter {
      * @param value the value to write, as a String
      * @return this {@link VDFWriter} for chaining */
     public VDFWriter writeValue(String name, String value) {
-        builder.append(whitespace)
-                .append(QUOTES).append(name).append(QUOTES)
-                .append(SPACE)
-                .append(QUOTES).append(value).append(QUOTES)
-                .append(NEWLINE);
-        return this;
+        return writeValue(name, (CharSequence) value);
+    }
+
+    private VDFWriter writeValue(String name, CharSequence value) {
+        boolean quoted = beginValue(name, outputType == OutputType.MINIMAL && VDFUtils.isUnquotable(value));
+        builder.append(value);
+        return endValue(quoted);
+    }
+
+    /**
+     * Writes the name of a key/value pair and what precedes its value, which is then appended straight into the builder.
+     * @param unquotable whether the value can do without quotes, which it does in {@link OutputType#MINIMAL}
+     * @return whether the value is quoted, to pass to {@link #endValue(boolean)} */
+    private boolean beginValue(String name, boolean unquotable) {
+        if (outputType == OutputType.PRETTY) {
+            builder.append(whitespace)
+                    .append(QUOTES).append(name).append(QUOTES)
+                    .append(SPACE)
+                    .append(QUOTES);
+            return true;
+        }
+        appendToken(name);
+        boolean quoted = outputType != OutputType.MINIMAL || !unquotable;
+        if (quoted) {
+            builder.append(QUOTES);
+        }
+        return quoted;
+    }
+
+    /**
+     * Writes what follows the value of a key/value pair.
+     * @param quoted whether the value is quoted, as returned by {@link #beginValue(String, boolean)}
+     * @return this {@link VDFWriter} for chaining */
+    private VDFWriter endValue(boolean quoted) {
+        if (outputType == OutputType.PRETTY) {
+            builder.append(QUOTES).append(NEWLINE);
+        }
+        else {
+            builder.append(quoted ? QUOTES : SPACE);
+        }
+        return flushIfFull();
     }
 
     /**
@@ -110,7 +251,9 @@ public class VDFWriter {
      * @param value the value to write, as a float
      * @return this {@link VDFWriter} for chaining */
     public VDFWriter writeValue(String name, float value) {
-        return this.writeValue(name, String.valueOf(value));
+        boolean quoted = beginValue(name, true);
+        VDFUtils.appendFloat(builder, value);
+        return endValue(quoted);
     }
 
     /**
@@ -119,7 +262,9 @@ public class VDFWriter {
      * @param value the value to write, as a double
      * @return this {@link VDFWriter} for chaining */
     public VDFWriter writeValue(String name, double value) {
-        return this.writeValue(name, String.valueOf(value));
+        boolean quoted = beginValue(name, true);
+        builder.append(value);
+        return endValue(quoted);
     }
 
     /**
@@ -128,7 +273,9 @@ public class VDFWriter {
      * @param value the value to write, as a long
      * @return this {@link VDFWriter} for chaining */
     public VDFWriter writeValue(String name, long value) {
-        return this.writeValue(name, String.valueOf(value));
+        boolean quoted = beginValue(name, true);
+        builder.append(value);
+        return endValue(quoted);
     }
 
     /**
@@ -137,7 +284,9 @@ public class VDFWriter {
      * @param value the value to write, as a int
      * @return this {@link VDFWriter} for chaining */
     public VDFWriter writeValue(String name, int value) {
-        return this.writeValue(name, String.valueOf(value));
+        boolean quoted = beginValue(name, true);
+        builder.append(value);
+        return endValue(quoted);
     }
 
     /**
@@ -146,7 +295,9 @@ public class VDFWriter {
      * @param value the value to write, as a boolean
      * @return this {@link VDFWriter} for chaining */
     public VDFWriter writeValue(String name, boolean value) {
-        return this.writeValue(name, String.valueOf(value));
+        boolean quoted = beginValue(name, true);
+        builder.append(value);
+        return endValue(quoted);
     }
 
     /**
@@ -155,7 +306,9 @@ public class VDFWriter {
      * @param value the value to write, as a byte
      * @return this {@link VDFWriter} for chaining */
     public VDFWriter writeValue(String name, byte value) {
-        return this.writeValue(name, String.valueOf(value));
+        boolean quoted = beginValue(name, true);
+        builder.append(value);
+        return endValue(quoted);
     }
 
     /**
@@ -164,7 +317,9 @@ public class VDFWriter {
      * @param value the value to write, as a short
      * @return this {@link VDFWriter} for chaining */
     public VDFWriter writeValue(String name, short value) {
-        return this.writeValue(name, String.valueOf(value));
+        boolean quoted = beginValue(name, true);
+        builder.append(value);
+        return endValue(quoted);
     }
 
     /**
@@ -173,7 +328,9 @@ public class VDFWriter {
      * @param value the value to write, as a char
      * @return this {@link VDFWriter} for chaining */
     public VDFWriter writeValue(String name, char value) {
-        return this.writeValue(name, String.valueOf(value));
+        boolean quoted = beginValue(name, VDFUtils.isUnquotable(value));
+        builder.append(value);
+        return endValue(quoted);
     }
 
     /**
@@ -182,7 +339,9 @@ public class VDFWriter {
      * @param value the value to write, as a {@link Color}
      * @return this {@link VDFWriter} for chaining */
     public VDFWriter writeValue(String name, Color value) {
-        return this.writeValue(name, VDFUtils.toColorString(value));
+        boolean quoted = beginValue(name, false);
+        VDFUtils.appendColor(builder, value.r, value.g, value.b, value.a);
+        return endValue(quoted);
     }
 
     /**
@@ -191,7 +350,9 @@ public class VDFWriter {
      * @param value the value to write, as a {@link Vector3}
      * @return this {@link VDFWriter} for chaining */
     public VDFWriter writeValue(String name, Vector3 value) {
-        return this.writeValue(name, VDFUtils.toVector3String(value));
+        boolean quoted = beginValue(name, false);
+        VDFUtils.appendVector3(builder, value.x, value.y, value.z);
+        return endValue(quoted);
     }
 
     /**
@@ -200,7 +361,9 @@ public class VDFWriter {
      * @param value the value to write, as a {@link Vector2}
      * @return this {@link VDFWriter} for chaining */
     public VDFWriter writeValue(String name, Vector2 value) {
-        return this.writeValue(name, VDFUtils.toVector2String(value));
+        boolean quoted = beginValue(name, false);
+        VDFUtils.appendVector2(builder, value.x, value.y);
+        return endValue(quoted);
     }
 
     /**
@@ -380,21 +543,94 @@ public class VDFWriter {
         return this;
     }
 
+    /**
+     * Writes everything buffered so far to the output, and flushes it. Does nothing if not streaming.
+     * @throws GdxRuntimeException if the output couldn't be written to */
+    @Override
+    public void flush() {
+        if (output == null) return;
+        try {
+            write();
+            output.flush();
+        }
+        catch (IOException e) {
+            throw new GdxRuntimeException("Error writing VDF document.", e);
+        }
+    }
+
+    /**
+     * Writes everything buffered so far to the output, and closes it. Does nothing if not streaming.
+     * @throws GdxRuntimeException if the output couldn't be written to */
+    @Override
+    public void close() {
+        if (output == null) return;
+        try {
+            write();
+            output.close();
+        }
+        catch (IOException e) {
+            throw new GdxRuntimeException("Error writing VDF document.", e);
+        }
+    }
+
+    /**
+     * Appends a token for the compact output types, without quotes if it can do without them in
+     * {@link OutputType#MINIMAL}, in which case it's followed by a space to end it.
+     */
+    private StringBuilder appendToken(CharSequence token) {
+        if (outputType == OutputType.MINIMAL && VDFUtils.isUnquotable(token)) {
+            return builder.append(token).append(SPACE);
+        }
+        return builder.append(QUOTES).append(token).append(QUOTES);
+    }
+
+    private VDFWriter flushIfFull() {
+        if (output != null && builder.length() >= BUFFER_SIZE) {
+            try {
+                write();
+            }
+            catch (IOException e) {
+                throw new GdxRuntimeException("Error writing VDF document.", e);
+            }
+        }
+        return this;
+    }
+
+    /**
+     * Writes the buffered characters to the output, copying them through a reused array rather than into a String.
+     */
+    private void write() throws IOException {
+        if (chars == null) {
+            chars = new char[BUFFER_SIZE];
+        }
+        for (int start = 0, length = builder.length(); start < length; start += chars.length) {
+            int end = Math.min(start + chars.length, length);
+            builder.getChars(start, end, chars, 0);
+            output.write(chars, 0, end - start);
+        }
+        builder.setLength(0);
+    }
+
     @Override
     public String toString() {
-        return toVDFString();
+        return output == null ? toVDFString() : super.toString();
     }
 
     /**
      * Returns the contents of the {@link StringBuilder}, in a VDF format.
-     * @return the VDF document as a String. */
+     * @return the VDF document as a String.
+     * @throws IllegalStateException if the document is streamed to an output */
     public String toVDFString() {
+        if (output != null) {
+            throw new IllegalStateException("The document is streamed to an output and is not kept.");
+        }
         return builder.toString();
     }
 
     /**
      * Returns the parsed contents of the {@link StringBuilder}.
-     * @return the VDF document as a {@link VDFNode}. */
+     * @return the VDF document as a {@link VDFNode}.
+     * @throws IllegalStateException if the document is streamed to an output */
     public VDFNode toVDFNode() {
         return new VDFParser().parse(toVDFString());
     }
@@ -0,0 +1,105 @@
+package it.aretesoftware.gdx.jvdf;
+
+import com.badlogic.gdx.graphics.Color;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * @author BucketOfBroccoli
+ */
+public class TestVDFBinaryParser extends BaseTest {
+
+    private final VDFParser parser = new VDFParser();
+    private final VDFBinaryParser binaryParser = new VDFBinaryParser();
+
+    @Test
+    public void testRoundTrip() {
+        testRoundTrip(getFileContents("sample.txt"));
+        testRoundTrip(getFileContents("sample_multimap.txt"));
+        testRoundTrip(getFileContents("sample_types.txt"));
+        testRoundTrip(getFileContents("sample_arrays.txt"));
+        testRoundTrip("\"root\" { \"empty\" { } \"unicode\" \"caffè ☕\" \"\" \"\" }");
+    }
+
+    @Test
+    public void testTypedValues() {
+        VDFBinaryWriter writer = new VDFBinaryWriter(16);
+        writer.writeNodeStart("root")
+                .writeValue("int", -123456)
+                .writeValue("float", 0.5f)
+                .writeValue("long", Long.MIN_VALUE)
+                .writeValue("bool", true)
+                .writeValue("color", Color.RED)
+                .writeValue("string", "Test!");
+        VDFNode root = writer.toVDFNode().get("root");
+        Assert.assertEquals(-123456, root.getInt("int"));
+        Assert.assertEquals(0.5f, root.getFloat("float"), 0f);
+        Assert.assertEquals(Long.MIN_VALUE, root.getLong("long"));
+        Assert.assertTrue(root.getBoolean("bool"));
+        Assert.assertEquals(Color.RED, root.getColor("color"));
+        Assert.assertEquals("Test!", root.getString("string"));
+    }
+
+    @Test
+    public void testShortcuts() {
+        ByteBuffer buffer = ByteBuffer.allocate(128).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.put(VDFBinaryParser.TYPE_NODE).put(bytes("shortcuts"));
+        buffer.put(VDFBinaryParser.TYPE_NODE).put(bytes("0"));
+        buffer.put(VDFBinaryParser.TYPE_INT).put(bytes("appid")).putInt(-1);
+        buffer.put(VDFBinaryParser.TYPE_STRING).put(bytes("AppName")).put(bytes("Game"));
+        buffer.put(VDFBinaryParser.TYPE_UINT64).put(bytes("LastPlayTime")).putLong(-1L);
+        buffer.put(VDFBinaryParser.TYPE_WIDE_STRING).put(bytes("Wide")).putChar('h').putChar('i').putChar('\0');
+        buffer.put(VDFBinaryParser.TYPE_END);
+        buffer.put(VDFBinaryParser.TYPE_END);
+        buffer.put(VDFBinaryParser.TYPE_END);
+        buffer.flip();
+        buffer.order(ByteOrder.BIG_ENDIAN);
+
+        VDFNode shortcut = binaryParser.parse(buffer).get("shortcuts").get("0");
+        Assert.assertEquals(-1, shortcut.getInt("appid"));
+        Assert.assertEquals("Game", shortcut.getString("AppName"));
+        Assert.assertEquals("18446744073709551615", shortcut.getString("LastPlayTime"));
+        Assert.assertEquals("hi", shortcut.getString("Wide"));
+        Assert.assertFalse(buffer.hasRemaining());
+        Assert.assertEquals(ByteOrder.BIG_ENDIAN, buffer.order());
+    }
+
+    @Test
+    public void testInputStream() {
+        byte[] bytes = new VDFBinaryWriter().writeNode(parser.parse(getFileContents("sample.txt"))).toByteArray();
+        Assert.assertEquals(parser.parse(getFileContents("sample.txt")).toVDFString(),
+                binaryParser.parse(new ByteArrayInputStream(bytes)).toVDFString());
+    }
+
+    @Test(expected = VDFParseException.class)
+    public void testTruncated() {
+        byte[] bytes = new VDFBinaryWriter().writeNode(parser.parse(getFileContents("sample.txt"))).toByteArray();
+        binaryParser.parse(ByteBuffer.wrap(bytes, 0, bytes.length / 2));
+    }
+
+    @Test(expected = VDFParseException.class)
+    public void testUnknownType() {
+        binaryParser.parse(new byte[] { 0x42, 'a', 0 });
+    }
+
+    private void testRoundTrip(String vdf) {
+        VDFNode root = parser.parse(vdf);
+        ByteBuffer buffer = new VDFBinaryWriter().writeNode(root).toByteBuffer();
+        Assert.assertEquals(root.toVDFString(), binaryParser.parse(buffer).toVDFString());
+        Assert.assertFalse(buffer.hasRemaining());
+    }
+
+    private byte[] bytes(String value) {
+        byte[] bytes = new byte[value.length() + 1];
+        for (int i = 0; i < value.length(); i++) {
+            bytes[i] = (byte) value.charAt(i);
+        }
+        return bytes;
+    }
+
+}
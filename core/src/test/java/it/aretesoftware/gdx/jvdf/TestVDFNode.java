@@ -3,10 +3,18 @@ package it.aretesoftware.gdx.jvdf;
 import com.badlogic.gdx.graphics.Color;
 import com.badlogic.gdx.math.Vector2;
 import com.badlogic.gdx.math.Vector3;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.BooleanArray;
+import com.badlogic.gdx.utils.CharArray;
+import com.badlogic.gdx.utils.FloatArray;
+import com.badlogic.gdx.utils.IntArray;
+import com.badlogic.gdx.utils.LongArray;
 
 import org.junit.Assert;
 import org.junit.Test;
 
+import java.io.StringWriter;
+
 /**
  * @author BucketOfBroccoli
  */
@@ -89,6 +97,166 @@ public class TestVDFNode extends BaseTest {
         Assert.assertEquals(node.get("sixth_node").asString(), "value6");
     }
 
+    @Test
+    public void testAddChildAfterRemove() {
+        VDFNode node = new VDFNode();
+        node.addChild("first", "1");
+        node.addChild("second", "2");
+        node.addChild("third", "3");
+        node.remove("third");
+        node.addChild("fourth", "4");
+        Assert.assertEquals("second", node.get("fourth").prev().name());
+        node.get("fourth").remove();
+        node.addChild("fifth", "5");
+        Assert.assertEquals("second", node.get("fifth").prev().name());
+        VDFNode.VDFIterator iterator = node.iterator();
+        while (iterator.hasNext()) {
+            iterator.next();
+            iterator.remove();
+        }
+        Assert.assertEquals(0, node.size);
+        node.addChild("sixth", "6");
+        Assert.assertEquals(node.child(), node.get("sixth"));
+        Assert.assertNull(node.get("sixth").prev());
+        node.put("sixth", new VDFNode("7"));
+        node.addChild("seventh", "8");
+        Assert.assertEquals("7", node.get("seventh").prev().asString());
+        Assert.assertEquals(2, node.size);
+
+        // Unlinking the tail through the fields leaves its parent set
+        VDFNode tail = node.get("seventh");
+        tail.prev.next = null;
+        node.size--;
+        node.addChild("eighth", "9");
+        Assert.assertEquals("sixth", node.get("eighth").prev().name());
+        Assert.assertEquals(2, node.size);
+        node.child = null;
+        node.size = 0;
+        node.addChild("ninth", "10");
+        Assert.assertSame(node.child, node.get("ninth"));
+        Assert.assertNull(node.child.prev);
+    }
+
+    @Test
+    public void testAddChildScaling() {
+        // How parse time scales with the amount of keys is measured by VDFScalingBenchmark, this checks that appending
+        // to a wide node keeps every child in order
+        int keys = 200000;
+        StringBuilder builder = new StringBuilder(keys * 20);
+        for (int i = 0; i < keys; i++) {
+            builder.append("\"key").append(i).append("\" \"").append(i).append("\"\n");
+        }
+        VDFNode node = parser.parse(builder.toString());
+        Assert.assertEquals(keys, node.size);
+        int i = 0;
+        for (VDFNode child = node.child; child != null; child = child.next, i++) {
+            Assert.assertEquals("key" + i, child.name);
+            if (child.next != null) Assert.assertSame(child, child.next.prev);
+        }
+        Assert.assertEquals(keys, i);
+        Assert.assertEquals(keys - 1, node.getInt("key" + (keys - 1)));
+    }
+
+    @Test
+    public void testIndex() {
+        VDFNode node = new VDFNode();
+        node.setIndexed(true);
+        for (int i = 0; i < VDFNode.INDEX_THRESHOLD * 4; i++) {
+            node.addChild("key" + i, String.valueOf(i));
+            node.addChild(i % 2 == 0 ? "multi" : "MULTI", String.valueOf(i));
+        }
+        Assert.assertEquals("5", node.getString("KEY5"));
+        Assert.assertEquals("7", node.get("Multi", 7).asString());
+        Assert.assertNull(node.get("multi", VDFNode.INDEX_THRESHOLD * 4));
+        Assert.assertEquals(VDFNode.INDEX_THRESHOLD * 4, node.count("multi"));
+        Assert.assertFalse(node.has("missing"));
+
+        node.remove("key5");
+        Assert.assertFalse(node.has("key5"));
+        node.get("multi", 0).remove();
+        Assert.assertEquals("1", node.getString("multi"));
+        VDFNode.VDFIterator iterator = node.iterator();
+        iterator.next();
+        iterator.remove();
+        Assert.assertFalse(node.has("key0"));
+        node.addChild("key5", "again");
+        Assert.assertEquals("again", node.getString("key5"));
+        VDFNode replacement = new VDFNode("replaced");
+        node.put("KEY6", replacement);
+        Assert.assertSame(replacement, node.get("key6"));
+        node.get("key7").name = "renamed";
+        node.clearIndex();
+        Assert.assertEquals("7", node.getString("renamed"));
+        Assert.assertNull(node.get("key7"));
+
+        node.setIndexed(false);
+        Assert.assertEquals("again", node.getString("key5"));
+        Assert.assertEquals("7", node.get("Multi", 6).asString());
+        Assert.assertEquals(VDFNode.INDEX_THRESHOLD * 4 - 1, node.count("multi"));
+    }
+
+    @Test
+    public void testIndexRemoveMulti() {
+        VDFNode node = new VDFNode();
+        node.setIndexed(true);
+        int values = 10000;
+        for (int i = 0; i < values; i++) {
+            node.addChild("multi", String.valueOf(i));
+        }
+        // Remove from the front, from the back and every other one in between
+        for (int i = 0; i < 100; i++) {
+            node.remove("multi");
+            node.get("multi", node.count("multi") - 1).remove();
+        }
+        for (int i = 0; i < 1000; i++) {
+            node.get("multi", i).remove();
+        }
+        Assert.assertEquals(values - 1200, node.count("multi"));
+        Assert.assertEquals(values - 1200, node.size);
+        Assert.assertEquals("101", node.getString("multi"));
+        Assert.assertEquals("103", node.get("multi", 1).asString());
+        Assert.assertEquals("2099", node.get("multi", 999).asString());
+        Assert.assertEquals("2100", node.get("multi", 1000).asString());
+        Assert.assertEquals(String.valueOf(values - 101), node.get("multi", values - 1201).asString());
+        node.addChild("multi", "last");
+        Assert.assertEquals("last", node.get("multi", values - 1200).asString());
+        while (node.remove("multi") != null) {
+        }
+        Assert.assertEquals(0, node.size);
+        Assert.assertFalse(node.has("multi"));
+        node.addChild("MULTI", "again");
+        Assert.assertEquals("again", node.getString("multi"));
+    }
+
+    @Test
+    public void testIndexStale() {
+        VDFNode node = new VDFNode();
+        for (int i = 0; i < VDFNode.INDEX_THRESHOLD * 2; i++) {
+            node.addChild("key" + i, String.valueOf(i));
+            node.addChild("key" + i, "second" + i);
+        }
+        // Not indexed by default, so renaming through the field is seen right away
+        Assert.assertEquals("1", node.getString("key1"));
+        node.get("key1").name = "renamed";
+        Assert.assertEquals("1", node.getString("renamed"));
+        Assert.assertEquals("second1", node.getString("key1"));
+
+        node.setIndexed(true);
+        Assert.assertEquals("2", node.getString("key2"));
+        // A hit on a renamed child falls back to walking the list
+        node.get("key2").name = "other";
+        Assert.assertEquals("second2", node.getString("key2"));
+        node.get("key3", 1).name = "other";
+        Assert.assertNull(node.get("key3", 1));
+        Assert.assertEquals("3", node.getString("key3"));
+        // A hit on a child unlinked through the fields falls back as well
+        VDFNode unlinked = node.get("key4");
+        unlinked.prev.next = unlinked.next;
+        unlinked.next.prev = unlinked.prev;
+        unlinked.parent = null;
+        Assert.assertEquals("second4", node.getString("key4"));
+    }
+
     @Test
     public void testRemove() {
         VDFNode node = parser.parse(sample).get("root_node");
@@ -141,6 +309,91 @@ public class TestVDFNode extends BaseTest {
         Assert.assertEquals(node.asString(), "0.0 0.0");
         node.set(ExampleEnum.first);
         Assert.assertEquals(node.asString(), "first");
+        // Numbers are read back without being parsed, and a String set afterwards isn't shadowed by them
+        node.set(123.456f);
+        Assert.assertEquals(node.asString(), "123.456");
+        Assert.assertEquals(123.456f, node.asFloat(), 0f);
+        node.set(-42);
+        Assert.assertEquals(-42, node.asInt());
+        node.set("7");
+        Assert.assertEquals(7, node.asInt());
+    }
+
+    @Test
+    public void testDecodedValue() {
+        VDFNode node = new VDFNode("100");
+        Assert.assertEquals(100, node.asInt());
+        Assert.assertEquals(100, node.asByte());
+        Assert.assertEquals(100f, node.asFloat(), 0f);
+        Assert.assertEquals(100, node.asInt());
+        node.set("0.1");
+        Assert.assertEquals(0.1f, node.asFloat(), 0f);
+        Assert.assertEquals(0.1d, node.asDouble(), 0d);
+        Assert.assertEquals(-1, node.asInt(-1));
+        node.set(3000000000L);
+        Assert.assertEquals(3000000000L, node.asLong());
+        Assert.assertEquals(-1, node.asInt(-1));
+        Assert.assertEquals(-1, node.asShort((short) -1));
+        node.set("0.1 0.2 0.3 0.4");
+        Color color = node.asColor();
+        color.set(Color.WHITE);
+        Assert.assertEquals(new Color(0.1f, 0.2f, 0.3f, 0.4f), node.asColor());
+        Assert.assertEquals(Vector3.Zero, node.asVector3(Vector3.Zero));
+        node.set(new Vector3(1, 2, 3));
+        Assert.assertEquals(new Vector3(1, 2, 3), node.asVector3());
+        Assert.assertEquals(new Vector3(1, 2, 3), node.asVector3());
+        Assert.assertNull(node.asColor(null));
+        node.set(new Vector2(4, 5));
+        Assert.assertEquals(new Vector2(4, 5), node.asVector2());
+        Assert.assertEquals(new Vector2(4, 5), node.asVector2());
+    }
+
+    @Test
+    public void testRead() {
+        VDFNode root = parser.parse(getFileContents("sample_arrays.txt")).get("root_node");
+        Color color = new Color();
+        Assert.assertSame(color, root.readColor("colorValues", color));
+        Assert.assertEquals(Color.WHITE, color);
+        Assert.assertEquals(Color.WHITE, root.get("colorValues").readColor(color));
+        Vector3 vec3 = new Vector3();
+        Assert.assertEquals(new Vector3(0, 0, 0), root.readVector3("vec3Values", vec3));
+        Vector2 vec2 = new Vector2();
+        Assert.assertEquals(new Vector2(0, 0), root.get("vec2Values").readVector2(vec2));
+
+        Array<Color> colors = new Array<>();
+        Color first = new Color();
+        colors.add(first);
+        root.readColorArray("colorValues", colors);
+        Assert.assertEquals(3, colors.size);
+        Assert.assertSame(first, colors.get(0));
+        Assert.assertEquals(Color.BLUE, colors.get(2));
+        Array<Vector3> vec3s = root.readVector3Array("vec3Values", new Array<Vector3>());
+        Assert.assertEquals(new Vector3(1, 0, 0), vec3s.get(1));
+        Array<Vector2> vec2s = root.readVector2Array("vec2Values", new Array<Vector2>());
+        Assert.assertEquals(new Vector2(1, 0), vec2s.get(2));
+        root.readVector2Array("missing", vec2s);
+        Assert.assertEquals(0, vec2s.size);
+    }
+
+    @Test
+    public void testReadPrimitiveArray() {
+        VDFNode root = parser.parse(getFileContents("sample_arrays.txt")).get("root_node");
+        FloatArray floats = new FloatArray();
+        floats.add(5f);
+        Assert.assertSame(floats, root.readFloatArray("doubleValues", floats));
+        Assert.assertEquals(3, floats.size);
+        Assert.assertEquals(-10f, floats.get(2), 0f);
+        LongArray longs = root.readLongArray("longValues", new LongArray());
+        Assert.assertEquals(-100L, longs.get(2));
+        IntArray ints = root.readIntArray("longValues", new IntArray());
+        Assert.assertEquals(10, ints.get(1));
+        BooleanArray booleans = root.readBooleanArray("booleanValues", new BooleanArray());
+        Assert.assertTrue(booleans.get(0));
+        Assert.assertFalse(booleans.get(1));
+        CharArray chars = root.readCharArray("charValues", new CharArray());
+        Assert.assertEquals('c', chars.get(2));
+        root.readFloatArray("missing", floats);
+        Assert.assertEquals(0, floats.size);
     }
 
     @Test
@@ -160,6 +413,20 @@ public class TestVDFNode extends BaseTest {
         Assert.assertEquals(root.put("node", Vector3.Zero).asVector3(), Vector3.Zero);
         Assert.assertEquals(root.put("node", Vector2.Zero).asVector2(), Vector2.Zero);
         Assert.assertEquals(root.put("node", ExampleEnum.first).asEnum(ExampleEnum.class), ExampleEnum.first);
+        Assert.assertEquals(1, root.size);
+
+        // The typed puts write like the typed setters, on existing and new nodes alike
+        Assert.assertEquals("0.1", root.put("node", 0.1f).asString());
+        Assert.assertEquals("0.1", root.put("float", 0.1f).asString());
+        Assert.assertEquals("1.0E-10", root.put("double", 1e-10).asString());
+        Assert.assertEquals("3000000000", root.put("long", 3000000000L).asString());
+        Assert.assertEquals("-7", root.put("int", -7).asString());
+        Assert.assertEquals("false", root.put("boolean", false).asString());
+        Assert.assertEquals("x", root.put("char", 'x').asString());
+        Assert.assertEquals("0.5 0.25 1.0 1.0", root.put("color", new Color(0.5f, 0.25f, 1f, 1f)).asString());
+        Assert.assertEquals(8, root.size);
+        Assert.assertEquals(3000000000L, root.getLong("long"));
+        Assert.assertEquals(1e-10, root.getDouble("double"), 0.0);
 
         VDFNode subNode = new VDFNode();
         subNode.addChild("key1", "value1");
@@ -210,6 +477,31 @@ public class TestVDFNode extends BaseTest {
         }
     }
 
+    @Test
+    public void testToVDFStringAppendable() throws InterruptedException {
+        VDFNode node = parser.parse(sample_multimap);
+        Assert.assertEquals(node.toVDFString(), node.toVDFString(new StringWriter()).toString());
+        VDFNode subNode = node.get("root_node");
+        Assert.assertEquals(subNode.toVDFString(), subNode.toVDFString(new StringBuilder()).toString());
+
+        // Deep enough to overflow a small stack if written recursively
+        VDFNode root = new VDFNode();
+        VDFNode current = root;
+        for (int i = 0; i < 2000; i++) {
+            VDFNode child = new VDFNode();
+            current.addChild("node", child);
+            current = child;
+        }
+        current.addChild("key", "value");
+        String[] vdf = new String[1];
+        Thread thread = new Thread(null, () -> vdf[0] = root.toVDFString(), "toVDFString", 64 * 1024);
+        thread.start();
+        thread.join();
+        Assert.assertNotNull(vdf[0]);
+        Assert.assertTrue(vdf[0].startsWith("\"node\" \n{\n    \"node\" \n    {\n"));
+        Assert.assertEquals(vdf[0], parser.parse(vdf[0]).toVDFString());
+    }
+
     private void testToVDFString(String vdfString) {
         VDFNode node = parser.parse(vdfString);
         String first = preprocessor.process(node.toVDFString());
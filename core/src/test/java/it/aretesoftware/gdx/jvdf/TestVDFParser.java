@@ -1,5 +1,6 @@
 package it.aretesoftware.gdx.jvdf;
 
+import com.badlogic.gdx.files.FileHandle;
 import com.badlogic.gdx.graphics.Color;
 import com.badlogic.gdx.math.Vector2;
 import com.badlogic.gdx.math.Vector3;
@@ -8,6 +9,15 @@ import com.badlogic.gdx.utils.Array;
 import org.junit.Assert;
 import org.junit.Test;
 
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.OutputStream;
+import java.io.StringReader;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ForkJoinPool;
+
 /**
  * @author Brendan Heinonen
  * @author BucketOfBroccoli
@@ -166,6 +176,271 @@ public class TestVDFParser extends BaseTest {
         Assert.assertEquals("value4", node.asString());
     }
 
+    @Test
+    public void testReader() {
+        VDFNode first = parser.parse(new StringReader(sample_types));
+        VDFNode second = parser.parse(sample_types);
+        Assert.assertEquals(second.toVDFString(), first.toVDFString());
+        first = new VDFParser(new VDFPreprocessor()).parse(new StringReader(sample_types));
+        Assert.assertEquals(second.toVDFString(), first.toVDFString());
+    }
+
+    @Test
+    public void testInputStream() {
+        String vdf = "\"root\" { \"key\" \"v\u00e4lue\" }";
+        VDFNode node = parser.parse(new ByteArrayInputStream(vdf.getBytes(StandardCharsets.UTF_8)), StandardCharsets.UTF_8);
+        Assert.assertEquals("v\u00e4lue", node.get("root").getString("key"));
+    }
+
+    @Test
+    public void testFileHandle() throws Exception {
+        File file = File.createTempFile("sample_multimap", ".txt");
+        file.deleteOnExit();
+        try (OutputStream output = new FileOutputStream(file)) {
+            output.write(sample_multimap.getBytes(StandardCharsets.UTF_8));
+        }
+        VDFNode node = parser.parse(new FileHandle(file));
+        Assert.assertEquals(parser.parse(sample_multimap).toVDFString(), node.toVDFString());
+    }
+
+    @Test
+    public void testPath() throws Exception {
+        String vdf = sample_multimap + "\"unicode\" \"caffè ☕ \uD83D\uDE00\"\n";
+        File file = File.createTempFile("sample_multimap", ".txt");
+        file.deleteOnExit();
+        try (OutputStream output = new FileOutputStream(file)) {
+            output.write(new byte[] { (byte) 0xEF, (byte) 0xBB, (byte) 0xBF });
+            output.write(vdf.getBytes(StandardCharsets.UTF_8));
+        }
+        Assert.assertEquals(parser.parse(vdf).toVDFString(), parser.parse(file.toPath()).toVDFString());
+        Assert.assertEquals(parser.parse(vdf).toVDFString(), new VDFParser(new VDFPreprocessor()).parse(file.toPath()).toVDFString());
+    }
+
+    @Test
+    public void testByteBuffer() {
+        ByteBuffer direct = ByteBuffer.allocateDirect(sample_types.length() * 3);
+        direct.put(sample_types.getBytes(StandardCharsets.UTF_8)).flip();
+        Assert.assertEquals(parser.parse(sample_types).toVDFString(), parser.parse(direct).toVDFString());
+        Assert.assertFalse(direct.hasRemaining());
+    }
+
+    @Test
+    public void testHandler() throws Exception {
+        VDFParser preprocessingParser = new VDFParser(new VDFPreprocessor());
+        for (String vdf : new String[] { sample, sample_multimap, sample_types, sample_arrays }) {
+            String expected = parser.parse(vdf).toVDFString();
+            TreeHandler handler = new TreeHandler();
+            parser.parse(vdf, handler);
+            Assert.assertEquals(expected, handler.root.toVDFString());
+            handler = new TreeHandler();
+            parser.parse(new StringReader(vdf), handler);
+            Assert.assertEquals(expected, handler.root.toVDFString());
+            handler = new TreeHandler();
+            preprocessingParser.parse(vdf, handler);
+            Assert.assertEquals(expected, handler.root.toVDFString());
+        }
+
+        File file = File.createTempFile("sample_multimap", ".txt");
+        file.deleteOnExit();
+        try (OutputStream output = new FileOutputStream(file)) {
+            output.write(sample_multimap.getBytes(StandardCharsets.UTF_8));
+        }
+        TreeHandler handler = new TreeHandler();
+        parser.parse(file.toPath(), handler);
+        Assert.assertEquals(parser.parse(sample_multimap).toVDFString(), handler.root.toVDFString());
+    }
+
+    @Test(expected = VDFParseException.class)
+    public void testHandlerUnderflow() {
+        parser.parse(VDF_UNDERFLOW_TEST, new TreeHandler());
+    }
+
+    @Test(expected = VDFParseException.class)
+    public void testHandlerOverflow() {
+        parser.parse(VDF_OVERFLOW_TEST, new TreeHandler());
+    }
+
+    /**
+     * Builds the same tree {@link VDFParser#parse(String)} would.
+     */
+    private static class TreeHandler implements VDFHandler {
+        final VDFNode root = new VDFNode();
+        final Array<VDFNode> stack = new Array<>();
+        VDFNode current = root;
+
+        @Override
+        public void value(String name, CharSequence value) {
+            current.addChild(name, value.toString());
+        }
+
+        @Override
+        public void beginSubNode(String name) {
+            VDFNode node = new VDFNode();
+            current.addChild(name, node);
+            stack.add(current);
+            current = node;
+        }
+
+        @Override
+        public void endSubNode() {
+            current = stack.pop();
+        }
+    }
+
+    @Test
+    public void testLazy() {
+        for (String vdf : new String[] { sample, sample_multimap, sample_types, sample_arrays }) {
+            Assert.assertEquals(parser.parse(vdf).toVDFString(), parser.parseLazy(vdf).toVDFString());
+        }
+        String vdf = "\"a\" { \"b\" \"{not a node}\" \"c\" { \"d\" \"\\\"}\" // }\n \"e\" { } } \"f\" g}\n\"h\" \"i\"";
+        Assert.assertEquals(parser.parse(vdf).toVDFString(), parser.parseLazy(vdf).toVDFString());
+
+        VDFNode root = parser.parseLazy(vdf);
+        VDFNode a = root.get("a");
+        Assert.assertEquals("i", root.getString("h"));
+        Assert.assertNull(a.child);
+        Assert.assertEquals(0, a.size);
+        Assert.assertEquals("{not a node}", a.getString("b"));
+        Assert.assertEquals(parser.parse(vdf).get("a").size, a.size);
+        Assert.assertNull(a.get("c").child);
+        Assert.assertEquals("\"}", a.get("c").getString("d"));
+        Assert.assertTrue(a.get("c").get("e").isEmpty());
+
+        // The accessors build the children, unlike the fields
+        a = parser.parseLazy(vdf).get("a");
+        Assert.assertEquals(parser.parse(vdf).get("a").size, a.size());
+        Assert.assertEquals("b", a.child().name);
+    }
+
+    @Test
+    public void testSliceValues() {
+        VDFParser slicingParser = new VDFParser();
+        slicingParser.setSliceValues(true);
+        String escapes = "\"a\" \"\\\"quoted\\\"\" \"b\" \"line\\nbreak\" \"c\" \"two  spaces\" \"d\" \"\" \"e\" plain";
+        for (String vdf : new String[] { sample, sample_multimap, sample_types, sample_arrays, escapes }) {
+            Assert.assertEquals(parser.parse(vdf).toVDFString(), slicingParser.parse(vdf).toVDFString());
+            Assert.assertEquals(parser.parse(vdf).toVDFString(), slicingParser.parseLazy(vdf).toVDFString());
+        }
+
+        VDFNode node = slicingParser.parse(sample_types).get("root_node");
+        Assert.assertEquals(123456, node.getLong("long"));
+        Assert.assertEquals(100, node.getInt("int"));
+        Assert.assertEquals(123.456f, node.getFloat("float"), 0f);
+        Assert.assertEquals(1000, node.getFloat("double"), 0f);
+        Assert.assertTrue(node.getBoolean("boolean"));
+        Assert.assertEquals("Test!", node.getString("string"));
+
+        VDFNode root = slicingParser.parse(escapes);
+        Assert.assertEquals("\"quoted\"", root.getString("a"));
+        Assert.assertEquals("line\nbreak", root.getString("b"));
+        Assert.assertEquals("", root.getString("d"));
+        Assert.assertEquals("plain", root.getString("e"));
+        Assert.assertSame(root.getString("e"), root.getString("e"));
+    }
+
+    @Test
+    public void testLazyDeep() {
+        // Quotes, escapes and comments around the braces of every level, which are jumped over once scanned
+        StringBuilder builder = new StringBuilder();
+        int depth = 200;
+        for (int i = 0; i < depth; i++) {
+            builder.append("\"n").append(i).append("\" // {\n{ \"q\" \"\\\"{\" \"open\" \"{\" /* } */\n");
+        }
+        for (int i = 0; i < depth; i++) {
+            builder.append("} \"after").append(i).append("\" \"}\" [$WIN32]\n");
+        }
+        String vdf = builder.toString();
+        VDFParser multiLineParser = new VDFParser();
+        multiLineParser.setMultiLine(true);
+        VDFParser slicingParser = new VDFParser();
+        slicingParser.setSliceValues(true);
+        for (VDFParser lazyParser : new VDFParser[] { parser, multiLineParser, slicingParser }) {
+            VDFNode root = lazyParser.parse(vdf);
+            Assert.assertEquals(root.toVDFString(), lazyParser.parseLazy(vdf).toVDFString());
+            // Open the deepest level first, through lookups
+            VDFNode node = lazyParser.parseLazy(vdf);
+            VDFNode eager = root;
+            for (int i = 0; i < depth; i++) {
+                node = node.get("n" + i);
+                eager = eager.get("n" + i);
+                Assert.assertEquals(eager.getString("q"), node.getString("q"));
+            }
+            Assert.assertEquals(eager.toVDFString(), node.toVDFString());
+        }
+    }
+
+    @Test(expected = VDFParseException.class)
+    public void testLazyUnderflow() {
+        parser.parseLazy("root_node { child_node { key value }");
+    }
+
+    @Test
+    public void testParallel() {
+        ForkJoinPool pool = new ForkJoinPool(4);
+        for (String vdf : new String[] { sample, sample_multimap, sample_types, sample_arrays }) {
+            Assert.assertEquals(parser.parse(vdf).toVDFString(), parser.parseParallel(vdf, pool).toVDFString());
+        }
+        // Only documents large enough are split, so repeat blocks with comments, conditionals, escapes and quotes
+        String[] blocks = {
+                "\"a\" { \"b\" \"{not a node}\" \"c\" { \"d\" \"\\\"}\" // }\n \"e\" { } } \"f\" g}\n",
+                "\"key\" \"multi\nline\" { // comment\n \"x\" \"y\" [$WIN32]\n }\n",
+                "\"k\" \"v\" /* { */\n \"s\" { \"t\" \"/\" \"u\" \"\\\\\" }\n"
+        };
+        for (String block : blocks) {
+            StringBuilder builder = new StringBuilder("\"root\"\n{\n");
+            while (builder.length() < VDFParallelParser.MIN_LENGTH) {
+                builder.append(block);
+            }
+            String vdf = builder.append("}\n").toString();
+            Assert.assertEquals(parser.parse(vdf).toVDFString(), parser.parseParallel(vdf, pool).toVDFString());
+        }
+
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; builder.length() < VDFParallelParser.MIN_LENGTH * 4; i++) {
+            builder.append('"').append(i).append("\" { \"name\" \"item_").append(i).append("\" \"attributes\" { \"damage\" \"")
+                    .append(i % 100).append("\" } }\n");
+        }
+        String vdf = builder.toString();
+        VDFParser slicingParser = new VDFParser();
+        slicingParser.setSliceValues(true);
+        slicingParser.setInternNames(true);
+        VDFNode root = slicingParser.parseParallel(vdf, pool);
+        Assert.assertEquals(parser.parse(vdf).toVDFString(), root.toVDFString());
+        Assert.assertEquals(42, root.get("142").get("attributes").getInt("damage"));
+        pool.shutdown();
+    }
+
+    @Test
+    public void testMultiLine() {
+        VDFParser multiLineParser = new VDFParser();
+        multiLineParser.setMultiLine(true);
+        String block = "\"block\" /* {\n } */ {\n \"text\" \"first {\n // }\n last\" \"e\" \"\\\"}\" /* } */ \"f\" \"g\" }\n";
+        StringBuilder builder = new StringBuilder("\"root\"\n{\n");
+        while (builder.length() < VDFParallelParser.MIN_LENGTH) {
+            builder.append(block);
+        }
+        String vdf = builder.append("}\n").toString();
+        VDFNode root = multiLineParser.parse(vdf);
+        VDFNode node = root.get("root").get("block");
+        Assert.assertEquals("first {\n // }\n last", node.getString("text"));
+        Assert.assertEquals("g", node.getString("f"));
+
+        ForkJoinPool pool = new ForkJoinPool(4);
+        Assert.assertEquals(root.toVDFString(), multiLineParser.parseLazy(vdf).toVDFString());
+        Assert.assertEquals(root.toVDFString(), multiLineParser.parseParallel(vdf, pool).toVDFString());
+        Assert.assertNotNull(new VDFParallelParser(vdf, false, null, true).parse(pool));
+        pool.shutdown();
+    }
+
+    @Test(expected = VDFParseException.class)
+    public void testParallelUnderflow() {
+        StringBuilder builder = new StringBuilder();
+        while (builder.length() < VDFParallelParser.MIN_LENGTH) {
+            builder.append("\"node\" { \"key\" \"value\" }\n");
+        }
+        parser.parseParallel(builder.append("\"node\" { \"child\" { }").toString());
+    }
+
     //
 
     @Test
@@ -3,6 +3,10 @@ package it.aretesoftware.gdx.jvdf;
 import org.junit.Assert;
 import org.junit.Test;
 
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+
 /**
  * @author Brendan Heinonen
  */
@@ -42,4 +46,107 @@ public class TestVDFPreprocessor extends BaseTest {
         Assert.assertEquals(VDF_NEWLINE_DELIM_TEST_RESULT, preprocessor.process(VDF_NEWLINE_DELIM_TEST));
     }
 
+    @Test
+    public void testExecution() {
+        String vdf = getFileContents("sample.txt");
+        String expected = preprocessor.process(vdf);
+        ForkJoinPool pool = new ForkJoinPool(3);
+        ExecutorService executor = Executors.newFixedThreadPool(3);
+        try {
+            VDFExecution[] executions = {
+                    VDFExecution.sequential(),
+                    VDFExecution.forkJoin(pool, 4),
+                    VDFExecution.executor(executor, 4),
+                    VDFExecution.automatic(1, VDFExecution.forkJoin(pool, 1)),
+                    VDFExecution.automatic(Integer.MAX_VALUE, VDFExecution.executor(executor, 1))
+            };
+            for (VDFExecution execution : executions) {
+                Assert.assertEquals(expected, new VDFPreprocessor(execution).process(vdf));
+            }
+
+            // Failures are rethrown on the calling thread
+            for (VDFExecution execution : executions) {
+                try {
+                    execution.execute(100, i -> {
+                        if (i == 42) throw new IllegalStateException("task " + i);
+                    });
+                    Assert.fail();
+                }
+                catch (IllegalStateException e) {
+                    // ForkJoinPool may rethrow a copy that wraps the original
+                    Assert.assertTrue(e.getMessage().endsWith("task 42"));
+                }
+            }
+        }
+        finally {
+            pool.shutdown();
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void testChunks() {
+        String[] documents = { VDF_COMMENT_TEST, VDF_MINIFY_TEST, VDF_NEWLINE_DELIM_TEST, getFileContents("sample.txt") };
+        ForkJoinPool pool = new ForkJoinPool(3);
+        try {
+            for (String vdf : documents) {
+                String[] lines = vdf.split("\\n");
+                String expected = new VDFPreprocessor(VDFExecution.sequential()).process(lines);
+                for (int chunkSize = 1; chunkSize <= 8; chunkSize++) {
+                    VDFPreprocessor chunkedPreprocessor = new VDFPreprocessor(VDFExecution.forkJoin(pool, chunkSize));
+                    StringBuilder builder = new StringBuilder();
+                    int[] chunks = { 0 };
+                    chunkedPreprocessor.process(lines, chunk -> {
+                        builder.append(chunk);
+                        chunks[0]++;
+                    });
+                    Assert.assertEquals(expected, builder.toString());
+                    Assert.assertEquals((lines.length + chunkSize - 1) / chunkSize, chunks[0]);
+                    // Buffers are reused by the next document
+                    Assert.assertEquals(expected, chunkedPreprocessor.process(lines));
+                }
+            }
+        }
+        finally {
+            pool.shutdown();
+        }
+    }
+
+    private static final String VDF_MULTILINE_TEST = "\"a\" /* block\n comment { \"x\" \"y\" }\n*/ \"b\"\n\"text\" \"first\n"
+            + "  // not a comment\nlast\" [$WIN32]\n\"c\" \"d\" /* one line */ \"e\" \\\n\"f\"\n";
+
+    @Test
+    public void testMultiLine() {
+        // Repeat the test so quoted strings and comments span the boundaries of every chunk size. The escape at the end
+        // of the test escapes the first quote of the next line, so every other repetition is read out of phase
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < 20; i++) {
+            builder.append(VDF_MULTILINE_TEST);
+        }
+        String vdf = builder.toString();
+        String[] lines = vdf.split("\\n");
+        VDFPreprocessor sequentialPreprocessor = new VDFPreprocessor(VDFExecution.sequential());
+        sequentialPreprocessor.setMultiLine(true);
+        String expected = sequentialPreprocessor.process(lines);
+        Assert.assertTrue(expected.contains("\"first\n  // not a comment\nlast\""));
+        Assert.assertTrue(expected.startsWith("\"a\" \"b\" "));
+
+        ForkJoinPool pool = new ForkJoinPool(3);
+        try {
+            for (int chunkSize = 1; chunkSize <= 8; chunkSize++) {
+                VDFPreprocessor chunkedPreprocessor = new VDFPreprocessor(VDFExecution.forkJoin(pool, chunkSize));
+                chunkedPreprocessor.setMultiLine(true);
+                Assert.assertEquals(expected, chunkedPreprocessor.process(lines));
+            }
+
+            // The tokenizer follows the same rules
+            VDFParser multiLineParser = new VDFParser();
+            multiLineParser.setMultiLine(true);
+            Assert.assertEquals(multiLineParser.parse(vdf).toVDFString(), new VDFParser(sequentialPreprocessor).parse(vdf).toVDFString());
+        }
+        finally {
+            pool.shutdown();
+        }
+    }
+
 }
@@ -0,0 +1,156 @@
+package it.aretesoftware.gdx.jvdf;
+
+import com.badlogic.gdx.utils.Array;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.StringReader;
+
+/**
+ * @author BucketOfBroccoli
+ */
+public class TestVDFReader extends BaseTest {
+
+    private final VDFParser parser = new VDFParser();
+
+    @Test
+    public void testSamples() {
+        testEquivalence(getFileContents("sample.txt"));
+        testEquivalence(getFileContents("sample_multimap.txt"));
+        testEquivalence(getFileContents("sample_types.txt"));
+        testEquivalence(getFileContents("sample_arrays.txt"));
+    }
+
+    @Test
+    public void testSkipChildren() {
+        StringBuilder builder = new StringBuilder("\"skipped\"\n{\n");
+        for (int i = 0; i < 1000; i++) {
+            builder.append("    \"").append(i).append("\" { \"key\" \"value\" }\n");
+        }
+        builder.append("}\n\"kept\" { \"skipped\" \"value\" \"key\" \"value\" }\n");
+
+        VDFReader reader = new VDFReader(builder.toString());
+        Assert.assertEquals(VDFReader.Token.KEY, reader.next());
+        Assert.assertEquals("skipped", reader.name());
+        reader.skipChildren();
+        Assert.assertEquals(VDFReader.Token.OBJECT_END, reader.token());
+        Assert.assertEquals(0, reader.depth());
+
+        Assert.assertEquals(VDFReader.Token.KEY, reader.next());
+        Assert.assertEquals("kept", reader.name());
+        Assert.assertEquals(VDFReader.Token.OBJECT_START, reader.next());
+        Assert.assertEquals(1, reader.depth());
+        Assert.assertEquals(VDFReader.Token.KEY, reader.next());
+        reader.skipChildren();
+        Assert.assertEquals(VDFReader.Token.VALUE, reader.token());
+        Assert.assertEquals(VDFReader.Token.KEY, reader.next());
+        Assert.assertEquals("value", reader.readString());
+        Assert.assertEquals(VDFReader.Token.OBJECT_END, reader.next());
+        Assert.assertEquals(VDFReader.Token.END_DOCUMENT, reader.next());
+        Assert.assertEquals(VDFReader.Token.END_DOCUMENT, reader.next());
+    }
+
+    @Test
+    public void testTypes() {
+        VDFReader reader = new VDFReader(new StringReader(getFileContents("sample_types.txt")));
+        reader.next();
+        reader.next();
+        while (reader.next() == VDFReader.Token.KEY) {
+            switch (reader.name()) {
+                case "long": Assert.assertEquals(123456L, reader.readLong()); break;
+                case "int": Assert.assertEquals(100, reader.readInt()); break;
+                case "double": Assert.assertEquals(1000.0f, reader.readFloat(), 0f); break;
+                case "float": Assert.assertEquals(123.456f, reader.readFloat(), 0f); break;
+                case "boolean": Assert.assertTrue(reader.readBoolean()); break;
+                case "string": reader.next(); Assert.assertEquals("Test!", reader.value().toString()); break;
+                default: Assert.assertFalse(reader.readBoolean()); break;
+            }
+        }
+        Assert.assertEquals(VDFReader.Token.OBJECT_END, reader.token());
+        Assert.assertEquals(VDFReader.Token.END_DOCUMENT, reader.next());
+    }
+
+    @Test
+    public void testSymbolTable() {
+        String vdf = "\"a\" { \"key\" \"1\" } \"b\" { \"key\" \"2\" }";
+        String[] names = readKeys(new VDFReader(vdf));
+        Assert.assertNotSame(names[0], names[1]);
+
+        VDFSymbolTable symbols = new VDFSymbolTable();
+        VDFReader reader = new VDFReader(vdf);
+        reader.setSymbolTable(symbols);
+        names = readKeys(reader);
+        Assert.assertSame(names[0], names[1]);
+        Assert.assertEquals(3, symbols.size());
+    }
+
+    private String[] readKeys(VDFReader reader) {
+        String[] names = new String[2];
+        int keys = 0;
+        while (reader.next() != VDFReader.Token.END_DOCUMENT) {
+            if (reader.token() == VDFReader.Token.KEY && reader.name().equals("key")) {
+                names[keys++] = reader.name();
+            }
+        }
+        Assert.assertEquals(2, keys);
+        return names;
+    }
+
+    @Test(expected = NumberFormatException.class)
+    public void testIntOverflow() {
+        VDFReader reader = new VDFReader("\"key\" \"4294967296\"");
+        reader.next();
+        reader.readInt();
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testNotAValue() {
+        VDFReader reader = new VDFReader("\"key\" { }");
+        reader.next();
+        reader.readString();
+    }
+
+    @Test(expected = VDFParseException.class)
+    public void testUnderflow() {
+        VDFReader reader = new VDFReader("root_node { child_node { key value }");
+        while (reader.next() != VDFReader.Token.END_DOCUMENT);
+    }
+
+    @Test(expected = VDFParseException.class)
+    public void testOverflow() {
+        VDFReader reader = new VDFReader("root_node { key value } }");
+        while (reader.next() != VDFReader.Token.END_DOCUMENT);
+    }
+
+    private void testEquivalence(String vdf) {
+        String expected = parser.parse(vdf).toVDFString();
+        Assert.assertEquals(expected, read(new VDFReader(vdf)).toVDFString());
+        Assert.assertEquals(expected, read(new VDFReader(new StringReader(vdf))).toVDFString());
+    }
+
+    private VDFNode read(VDFReader reader) {
+        VDFNode root = new VDFNode();
+        Array<VDFNode> nodes = new Array<>();
+        nodes.add(root);
+        VDFReader.Token token;
+        while ((token = reader.next()) != VDFReader.Token.END_DOCUMENT) {
+            switch (token) {
+                case VALUE:
+                    nodes.peek().addChild(reader.name(), reader.readString());
+                    break;
+                case OBJECT_START:
+                    VDFNode node = new VDFNode();
+                    nodes.peek().addChild(reader.name(), node);
+                    nodes.add(node);
+                    Assert.assertEquals(nodes.size - 1, reader.depth());
+                    break;
+                case OBJECT_END:
+                    nodes.pop();
+                    Assert.assertEquals(nodes.size - 1, reader.depth());
+                    break;
+            }
+        }
+        return root;
+    }
+
+}
@@ -0,0 +1,90 @@
+package it.aretesoftware.gdx.jvdf;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Set;
+
+/**
+ * @author BucketOfBroccoli
+ */
+public class TestVDFSymbolTable extends BaseTest {
+
+    @Test
+    public void testIntern() {
+        VDFSymbolTable symbols = new VDFSymbolTable();
+        String first = symbols.intern(new StringBuilder("name"));
+        Assert.assertEquals("name", first);
+        Assert.assertSame(first, symbols.intern(new StringBuilder("name")));
+        Assert.assertNotSame(first, symbols.intern(new StringBuilder("Name")));
+        Assert.assertEquals("", symbols.intern(new StringBuilder()));
+        Assert.assertNull(symbols.internValue("value"));
+        for (int i = 0; i < 1000; i++) {
+            symbols.intern("key_" + i);
+        }
+        Assert.assertEquals(1003, symbols.size());
+        Assert.assertSame(first, symbols.intern("name"));
+        Assert.assertEquals("key_999", symbols.intern("key_999"));
+        symbols.clear();
+        Assert.assertEquals(0, symbols.size());
+    }
+
+    @Test
+    public void testParse() {
+        VDFParser parser = new VDFParser();
+        parser.setInternNames(true);
+        VDFNode root = parser.parse(getFileContents("sample_arrays.txt")).get("root_node");
+        Assert.assertSame(root.get("vdfValues", 0).name, root.get("vdfValues", 3).name);
+        Assert.assertEquals(new VDFParser().parse(getFileContents("sample_arrays.txt")).toVDFString(), root.parent.toVDFString());
+
+        VDFSymbolTable symbols = new VDFSymbolTable(8);
+        parser.setSymbolTable(symbols);
+        VDFNode first = parser.parse(getFileContents("sample_types.txt")).get("root_node");
+        VDFNode second = parser.parseLazy(getFileContents("sample_types.txt")).get("root_node");
+        Assert.assertSame(first.name, second.name);
+        Assert.assertSame(first.getString("int"), second.getString("int"));
+        Assert.assertNotSame(first.getString("color"), second.getString("color"));
+    }
+
+    @Test
+    public void testHeapSaved() {
+        StringBuilder builder = new StringBuilder("\"items\"\n{\n");
+        for (int i = 0; i < 20000; i++) {
+            builder.append("    \"").append(i).append("\"\n    {\n");
+            builder.append("        \"name\"        \"item_").append(i).append("\"\n");
+            builder.append("        \"prefab\"      \"weapon_base\"\n");
+            builder.append("        \"item_quality\" \"4\"\n");
+            builder.append("        \"attributes\"\n        {\n");
+            builder.append("            \"damage\"  \"").append(i % 100).append("\"\n");
+            builder.append("            \"range\"   \"").append(i % 10).append("\"\n");
+            builder.append("        }\n");
+            builder.append("    }\n");
+        }
+        String vdf = builder.append("}\n").toString();
+
+        // Count the distinct String instances the trees hold on to, rather than measuring the heap through the GC
+        VDFParser parser = new VDFParser();
+        int plain = countStrings(parser.parse(vdf));
+        parser.setSymbolTable(new VDFSymbolTable(16));
+        int interned = countStrings(parser.parse(vdf));
+        Assert.assertTrue(plain + " strings without interning, " + interned + " with", interned * 3 < plain);
+    }
+
+    private int countStrings(VDFNode root) {
+        Set<String> strings = Collections.newSetFromMap(new IdentityHashMap<String, Boolean>());
+        ArrayDeque<VDFNode> nodes = new ArrayDeque<>();
+        nodes.push(root);
+        while (!nodes.isEmpty()) {
+            for (VDFNode node = nodes.pop().child; node != null; node = node.next) {
+                strings.add(node.name);
+                if (node.child != null) nodes.push(node);
+                else strings.add(node.asString());
+            }
+        }
+        return strings.size();
+    }
+
+}
@@ -0,0 +1,130 @@
+package it.aretesoftware.gdx.jvdf;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * @author BucketOfBroccoli
+ */
+public class TestVDFTokenizer extends BaseTest {
+
+    private final VDFParser parser = new VDFParser();
+    private final VDFParser preprocessingParser = new VDFParser(new VDFPreprocessor());
+
+    @Test
+    public void testSamples() {
+        testEquivalence(getFileContents("sample.txt"));
+        testEquivalence(getFileContents("sample_multimap.txt"));
+        testEquivalence(getFileContents("sample_types.txt"));
+        testEquivalence(getFileContents("sample_arrays.txt"));
+    }
+
+    @Test
+    public void testComments() {
+        testEquivalence("key// This comment will be stripped\nvalue/* This comment will be stripped\n// This line will be stripped");
+        testEquivalence("\"key\" \"http://url\" // comment\n\"a/b\" \"c/\"\n\"d\" /\n\"e\"");
+        testEquivalence("// leading comment\n\"root\"\n{\n    \"key\"    \"value\"    // trailing comment\n}");
+    }
+
+    @Test
+    public void testConditionals() {
+        testEquivalence("\"root\"\n{\n    \"key\"    \"value\"    [$WIN32]\n    \"key\"    \"[value]\"\n}");
+    }
+
+    @Test
+    public void testWhitespace() {
+        testEquivalence("      \"Key\"                    \"Value\"       \n");
+        testEquivalence("\"key\"\t\t\"value  with\t spaces \"\r\n\"multi\" \"line   \n   value\"\n\n");
+        testEquivalence("\"key\" \"value\n\n// comment\n\nmore\"");
+    }
+
+    @Test
+    public void testEscape() {
+        testEquivalence("\"key with \\\"\" \"value with \\\" \" \"newline\" \"val\\n\\nue\"");
+        testEquivalence("\"key\" \"\\\\\" \"other\" \"{}\"");
+    }
+
+    @Test
+    public void testUtf8() {
+        String vdf = "\"ключ\" \"caffè ☕ \uD83D\uDE00\"\n\"key\" \"value\"";
+        byte[] bytes = vdf.getBytes(StandardCharsets.UTF_8);
+        // Feed a byte at a time, so every multi-byte sequence is split between calls
+        VDFTokenizer tokenizer = new VDFTokenizer(new VDFParserState());
+        for (int i = 0; i < bytes.length; i++) {
+            tokenizer.tokenize(ByteBuffer.wrap(bytes, i, 1));
+        }
+        tokenizer.endTokenize();
+        VDFNode root = tokenizer.state().root();
+        Assert.assertEquals(parser.parse(vdf).toVDFString(), root.toVDFString());
+        Assert.assertEquals("caffè ☕ \uD83D\uDE00", root.getString("ключ"));
+
+        tokenizer = new VDFTokenizer(new VDFParserState());
+        tokenizer.tokenize(ByteBuffer.wrap(new byte[] { '"', 'k', '"', ' ', '"', (byte) 0xE2, (byte) 0x98, '"' }));
+        tokenizer.endTokenize();
+        Assert.assertEquals("\uFFFD", tokenizer.state().root().getString("k"));
+
+        // Overlong forms and encoded surrogates never decode to structural characters
+        byte[][] malformed = {
+                { (byte) 0xC0, (byte) 0xA2 },
+                { (byte) 0xC0, (byte) 0x80 },
+                { (byte) 0xE0, (byte) 0x80, (byte) 0xA2 },
+                { (byte) 0xF0, (byte) 0x80, (byte) 0x80, (byte) 0xA2 },
+                { (byte) 0xED, (byte) 0xA0, (byte) 0x80 },
+                { (byte) 0xED, (byte) 0xBF, (byte) 0xBF }
+        };
+        for (byte[] sequence : malformed) {
+            byte[] document = new byte[sequence.length + 6];
+            System.arraycopy(new byte[] { '"', 'k', '"', ' ', '"' }, 0, document, 0, 5);
+            System.arraycopy(sequence, 0, document, 5, sequence.length);
+            document[document.length - 1] = '"';
+            tokenizer = new VDFTokenizer(new VDFParserState());
+            tokenizer.tokenize(ByteBuffer.wrap(document));
+            tokenizer.endTokenize();
+            Assert.assertEquals(1, tokenizer.state().root().size);
+            Assert.assertEquals("\uFFFD", tokenizer.state().root().getString("k"));
+        }
+    }
+
+    @Test
+    public void testMultiLine() {
+        VDFParser multiLineParser = new VDFParser();
+        multiLineParser.setMultiLine(true);
+        VDFPreprocessor multiLinePreprocessor = new VDFPreprocessor();
+        multiLinePreprocessor.setMultiLine(true);
+        String vdf = "\"a\" /* block\n comment { \"x\" \"y\" }\n */ \"b\"\n"
+                + "\"text\" \"first line\r\n  // not a comment [$WIN32]\n\tlast /* line */\"\n"
+                + "\"c\" \"d\" /* one line */ \"e\" \"f\"// trailing\n"
+                + "\"escaped\" \"\\\"quoted\\\"\nnext\" [$WIN32] /*\n";
+        VDFNode root = multiLineParser.parse(vdf);
+        Assert.assertEquals(5, root.size);
+        Assert.assertEquals("b", root.getString("a"));
+        Assert.assertEquals("first line\n  // not a comment [$WIN32]\n\tlast /* line */", root.getString("text"));
+        Assert.assertEquals("d", root.getString("c"));
+        Assert.assertEquals("f", root.getString("e"));
+        Assert.assertEquals("\"quoted\"\nnext", root.getString("escaped"));
+        Assert.assertEquals(root.toVDFString(), new VDFParser(multiLinePreprocessor).parse(vdf).toVDFString());
+
+        // Without block comments, quoted line breaks or repeated whitespaces in quotes, both modes agree
+        String sample = getFileContents("sample_types.txt");
+        Assert.assertEquals(parser.parse(sample).toVDFString(), multiLineParser.parse(sample).toVDFString());
+    }
+
+    @Test(expected = VDFParseException.class)
+    public void testUnderflow() {
+        parser.parse("root_node { child_node { key value }");
+    }
+
+    @Test
+    public void testLines() {
+        String vdf = getFileContents("sample.txt");
+        Assert.assertEquals(parser.parse(vdf).toVDFString(), parser.parse(vdf.split("\\n")).toVDFString());
+    }
+
+    private void testEquivalence(String vdf) {
+        Assert.assertEquals(preprocessingParser.parse(vdf).toVDFString(), parser.parse(vdf).toVDFString());
+    }
+
+}
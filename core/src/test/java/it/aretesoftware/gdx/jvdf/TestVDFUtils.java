@@ -7,6 +7,9 @@ import com.badlogic.gdx.math.Vector3;
 import org.junit.Assert;
 import org.junit.Test;
 
+import java.math.BigDecimal;
+import java.util.Random;
+
 /**
  * @author BucketOfBroccoli
  */
@@ -38,6 +41,12 @@ public class TestVDFUtils {
         Assert.assertEquals(VDFUtils.toObject("0X"), "0X");
         Assert.assertEquals(VDFUtils.toObject(""), "");
         Assert.assertNull(VDFUtils.toObject(null));
+        Assert.assertEquals(VDFUtils.toObject("-5"), -5);
+        Assert.assertEquals(VDFUtils.toObject("-1.5f"), -1.5f);
+        Assert.assertEquals(VDFUtils.toObject(" FALSE "), false);
+        Assert.assertEquals(VDFUtils.toObject("1.0\t2.0"), new Vector2(1, 2));
+        Assert.assertEquals(VDFUtils.toObject("+ + + +"), "+ + + +");
+        Assert.assertEquals(VDFUtils.toObject("1 two"), "1 two");
     }
 
     @Test
@@ -93,6 +102,7 @@ public class TestVDFUtils {
         Assert.assertTrue(VDFUtils.isColor("-1 0 0 0"));
         Assert.assertFalse(VDFUtils.isColor("t e s t"));
         Assert.assertFalse(VDFUtils.isColor("1 0 0"));
+        Assert.assertFalse(VDFUtils.isColor("+ . f -"));
     }
 
     @Test
@@ -106,6 +116,45 @@ public class TestVDFUtils {
 
     }
 
+    @Test
+    public void parseColor() {
+        Color color = new Color();
+        Assert.assertSame(color, VDFUtils.parseColor("0.1 0.2 0.3 0.4", color));
+        Assert.assertEquals(new Color(0.1f, 0.2f, 0.3f, 0.4f), color);
+        Assert.assertEquals(Color.CLEAR, VDFUtils.parseColor(" .0\t0.0f 0F\n-0 ", color));
+        try {
+            VDFUtils.parseColor("1 1 1", color);
+            Assert.fail();
+        }
+        catch (VDFUtils.VDFUtilsException e) {
+            Assert.assertEquals("'1 1 1' does not have the four RGBA values that make up a Color.", e.getMessage());
+        }
+        try {
+            VDFUtils.parseColor("1 a 1 1", color);
+            Assert.fail();
+        }
+        catch (VDFUtils.VDFUtilsException e) {
+            Assert.assertEquals("One of the RGBA values in '1 a 1 1' is not a number.", e.getMessage());
+        }
+    }
+
+    @Test
+    public void parseFloat() {
+        String[] values = {"0.1", "123.456", "-10", "+3.5f", "16777216", "16777217", "0.30000001", "1.", ".5",
+                "0.12345678901", "99999.99", "3.4028235", "123456789012345678901234567890"};
+        Vector2 vec2 = new Vector2();
+        for (String value : values) {
+            VDFUtils.parseVector2(value + " " + value, vec2);
+            Assert.assertEquals(value, Float.parseFloat(value), vec2.x, 0f);
+        }
+        Random random = new Random(0);
+        for (int i = 0; i < 10000; i++) {
+            String value = new BigDecimal(random.nextInt(20000000)).movePointLeft(random.nextInt(12)).toPlainString();
+            VDFUtils.parseVector2(value + " " + value, vec2);
+            Assert.assertEquals(value, Float.parseFloat(value), vec2.y, 0f);
+        }
+    }
+
     @Test
     public void toColorString() {
         Assert.assertEquals(VDFUtils.toColorString(Color.BLACK), "0.0 0.0 0.0 1.0");
@@ -136,6 +185,14 @@ public class TestVDFUtils {
         Assert.assertEquals(VDFUtils.toVector3("-1 +1 0"), new Vector3(-1, +1, 0));
     }
 
+    @Test
+    public void parseVector3() {
+        Vector3 vec3 = new Vector3();
+        Assert.assertSame(vec3, VDFUtils.parseVector3(" 0   1 2", vec3));
+        Assert.assertEquals(new Vector3(0, 1, 2), vec3);
+        Assert.assertEquals(new Vector3(-1, +1, 0), VDFUtils.parseVector3("-1 +1 0", vec3));
+    }
+
     @Test
     public void toVector3String() {
         Assert.assertEquals(VDFUtils.toVector3String(new Vector3()), "0.0 0.0 0.0");
@@ -166,6 +223,59 @@ public class TestVDFUtils {
         Assert.assertEquals(VDFUtils.toVector2("-1 +1"), new Vector2(-1, +1));
     }
 
+    @Test
+    public void parseVector2() {
+        Vector2 vec2 = new Vector2();
+        Assert.assertSame(vec2, VDFUtils.parseVector2("0.1 0.2", vec2));
+        Assert.assertEquals(new Vector2(0.1f, 0.2f), vec2);
+        Assert.assertEquals(new Vector2(-1, +1), VDFUtils.parseVector2("-1 +1", vec2));
+    }
+
+    @Test
+    public void toLong() {
+        String[] values = { "0", "-0", "+7", "123456", "-123456", "9223372036854775807", "-9223372036854775808" };
+        for (String value : values) {
+            Assert.assertEquals(value, Long.parseLong(value), VDFUtils.toLong(new VDFSlice("x" + value + "x", 1, value.length())));
+        }
+        String[] invalid = { "", "-", "+", "1.0", "12a", "9223372036854775808", "-9223372036854775809" };
+        for (String value : invalid) {
+            try {
+                VDFUtils.toLong(value);
+                Assert.fail(value);
+            }
+            catch (NumberFormatException ignored) {
+            }
+        }
+    }
+
+    @Test
+    public void toFloat() {
+        String[] values = { "0", "-0.5", "123.456", "1000.0", "1.5f", "1e3", " 2.5 ", "NaN" };
+        for (String value : values) {
+            Assert.assertEquals(value, Float.parseFloat(value), VDFUtils.toFloat(new VDFSlice(value, 0, value.length())), 0f);
+        }
+    }
+
+    @Test
+    public void appendFloat() {
+        StringBuilder builder = new StringBuilder();
+        float[] values = { 0, -0f, 1, -1, 1000, 123.456f, 0.1f, 0.001f, 155866.125f, 9999999, 1e7f, 1e-4f, Float.NaN,
+                Float.NEGATIVE_INFINITY, Float.MAX_VALUE, Float.MIN_VALUE };
+        for (float value : values) {
+            builder.setLength(0);
+            Assert.assertEquals(Float.toString(value), VDFUtils.appendFloat(builder, value).toString());
+        }
+        Random random = new Random(0);
+        for (int i = 0; i < 100000; i++) {
+            float value = Float.intBitsToFloat(random.nextInt());
+            if (i % 2 == 0) value = random.nextInt(20000000) / (float) Math.pow(10, random.nextInt(8));
+            builder.setLength(0);
+            String string = VDFUtils.appendFloat(builder, value).toString();
+            Assert.assertEquals(string, Float.floatToIntBits(value), Float.floatToIntBits(Float.parseFloat(string)));
+            Assert.assertTrue(string, string.length() <= Float.toString(value).length());
+        }
+    }
+
     @Test
     public void toVector2String() {
         Assert.assertEquals(VDFUtils.toVector2String(new Vector2()), "0.0 0.0");
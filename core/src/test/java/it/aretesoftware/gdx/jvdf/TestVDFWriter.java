@@ -8,6 +8,13 @@ import com.badlogic.gdx.utils.Array;
 import org.junit.Assert;
 import org.junit.Test;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
 /**
  * @author BucketOfBroccoli
  */
@@ -78,6 +85,107 @@ public class TestVDFWriter extends BaseTest {
         Assert.assertEquals(firstNode.toVDFString(), secondNode.toVDFString());
     }
 
+    @Test
+    public void testWriteNode() {
+        VDFNode root = new VDFParser().parse("\"node\" { \"key\" \"value\" \"empty\" { } \"sub\" { \"a\" \"b\" } }");
+        writer.writeNodeStart("outer");
+            writer.writeNode(root);
+            writer.writeNode(root.get("node").get("sub"));
+        writer.writeNodeEnd();
+        String expected =
+                "\"outer\"\n{\n" +
+                "    \"node\"\n    {\n" +
+                "        \"key\" \"value\"\n" +
+                "        \"empty\"\n        {\n        }\n" +
+                "        \"sub\"\n        {\n            \"a\" \"b\"\n        }\n" +
+                "    }\n" +
+                "    \"sub\"\n    {\n        \"a\" \"b\"\n    }\n" +
+                "}\n";
+        Assert.assertEquals(expected, writer.toVDFString());
+
+        VDFNode sampleRoot = new VDFParser().parse(sample);
+        Assert.assertEquals(sampleRoot.toVDFString(), new VDFWriter().writeNode(sampleRoot).toVDFNode().toVDFString());
+    }
+
+    @Test
+    public void testOutputType() {
+        VDFParser parser = new VDFParser();
+        VDFParser preprocessingParser = new VDFParser(new VDFPreprocessor());
+        String vdf = "\"node\" { \"key\" \"value\" \"empty\" { } \"with space\" \"1.0 1.0\" \"url\" \"http://url\" "
+                + "\"blank\" \"\" \"sub\" { \"a\" \"[b]\" \"{c}\" \"d\" } }";
+        VDFNode root = parser.parse(vdf);
+
+        Assert.assertEquals("\"node\"{\"key\"\"value\"\"empty\"{}\"with space\"\"1.0 1.0\"\"url\"\"http://url\""
+                + "\"blank\"\"\"\"sub\"{\"a\"\"[b]\"\"{c}\"\"d\"}}", root.toVDFString(VDFWriter.OutputType.COMPACT));
+        Assert.assertEquals("node {key value empty {}\"with space\"\"1.0 1.0\"url \"http://url\""
+                + "blank \"\"sub {a \"[b]\"\"{c}\"d }}", root.toVDFString(VDFWriter.OutputType.MINIMAL));
+
+        for (String sample : new String[] { vdf, sample, sample_types, sample_arrays, getFileContents("sample_multimap.txt") }) {
+            VDFNode node = parser.parse(sample);
+            String expected = node.toVDFString();
+            for (VDFWriter.OutputType outputType : VDFWriter.OutputType.values()) {
+                String written = node.toVDFString(outputType);
+                Assert.assertEquals(expected, parser.parse(written).toVDFString());
+                Assert.assertEquals(expected, preprocessingParser.parse(written).toVDFString());
+                if (outputType != VDFWriter.OutputType.PRETTY) {
+                    Assert.assertEquals(written, new VDFWriter().setOutputType(outputType).writeNode(node).toVDFString());
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testStreaming() throws IOException {
+        VDFNode root = new VDFParser().parse(sample_arrays);
+        StringWriter output = new StringWriter();
+        VDFWriter streamingWriter = new VDFWriter(output);
+        // Enough to go through the buffer a few times
+        for (int i = 0; i < 200; i++) {
+            writer.writeNodeStart("node").writeNode(root).writeValue("index", i).writeNodeEnd();
+            streamingWriter.writeNodeStart("node").writeNode(root).writeValue("index", i).writeNodeEnd();
+        }
+        Assert.assertTrue(output.getBuffer().length() > 0);
+        streamingWriter.close();
+        Assert.assertEquals(writer.toVDFString(), output.toString());
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        VDFWriter byteWriter = new VDFWriter(bytes, StandardCharsets.UTF_8);
+        byteWriter.writeValue("ключ", "caffè ☕").flush();
+        Assert.assertEquals("\"ключ\" \"caffè ☕\"\n", new String(bytes.toByteArray(), StandardCharsets.UTF_8));
+
+        Path path = Files.createTempFile("jvdf", ".txt");
+        try {
+            root.writeTo(path);
+            Assert.assertEquals(root.toVDFString(), new VDFParser().parse(path).toVDFString());
+        }
+        finally {
+            Files.delete(path);
+        }
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testStreamingToString() {
+        new VDFWriter(new StringWriter()).writeValue("key", "value").toVDFString();
+    }
+
+    @Test
+    public void testWriteNumbers() {
+        writer.writeValue("float", 0.1f).writeValue("int", -100).writeValue("long", Long.MIN_VALUE)
+                .writeValue("double", 0.1).writeValue("byte", (byte) -1).writeValue("short", (short) 12)
+                .writeValue("char", '{').writeValue("color", new Color(1, 0.5f, 0.25f, 1));
+        Assert.assertEquals("\"float\" \"0.1\"\n\"int\" \"-100\"\n\"long\" \"-9223372036854775808\"\n"
+                + "\"double\" \"0.1\"\n\"byte\" \"-1\"\n\"short\" \"12\"\n\"char\" \"{\"\n"
+                + "\"color\" \"1.0 0.5 0.25 1.0\"\n", writer.toVDFString());
+
+        VDFWriter minimalWriter = new VDFWriter().setOutputType(VDFWriter.OutputType.MINIMAL);
+        minimalWriter.writeValue("float", -1.5f).writeValue("char", '{').writeValue("char", 'a')
+                .writeValue("vec2", new Vector2(0, 1));
+        Assert.assertEquals("float -1.5 char \"{\"char a vec2 \"0.0 1.0\"", minimalWriter.toVDFString());
+        VDFNode node = minimalWriter.toVDFNode();
+        Assert.assertEquals(-1.5f, node.getFloat("float"), 0f);
+        Assert.assertEquals("{", node.getString("char"));
+    }
+
     @Test
     public void testMisc() {
         writer.writeMultimapValue("floatValues", new Object[] {1f, 10f, -100f});